@@ -0,0 +1,49 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic fixtures shared by the benchmarks, so runs stay comparable.
+ */
+final class BenchmarkData {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Google", "Xiaomi", "Motorola", "Nokia"};
+    private static final DeviceState[] STATES = DeviceState.values();
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    static List<Device> devices(int count) {
+        List<Device> devices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Device device = new Device((long) i + 1, "device-" + i, brand(i), STATES[i % STATES.length],
+                    CREATED.plusSeconds(i));
+            device.setVersion((long) i % 3);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    static DeviceRequestDTO request(long i) {
+        return new DeviceRequestDTO("device-" + i, brand(i), i % 2 == 0 ? DeviceState.AVAILABLE : DeviceState.INACTIVE);
+    }
+
+    static List<DeviceRequestDTO> requests(int count, long offset) {
+        List<DeviceRequestDTO> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(request(offset + i));
+        }
+        return requests;
+    }
+
+    private static String brand(long i) {
+        return BRANDS[(int) (i % BRANDS.length)];
+    }
+}
@@ -0,0 +1,137 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.ChalengeApplication;
+import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.DeviceService;
+import com.oneglobal.chalenge.service.checkout.DeviceCheckoutService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hundreds of threads claiming one AVAILABLE device each and handing it back, on the in-memory {@code h2}
+ * profile. {@code checkout} uses {@link DeviceCheckoutService}; {@code pickAndPatch} is the old client
+ * flow of listing AVAILABLE devices, picking one and patching it to IN_USE with its version. The
+ * {@code claimed}, {@code lost} and {@code failed} counters show how many attempts got a device, lost a
+ * race to another thread, or failed with an exception such as a lock or pool timeout. H2 has no
+ * SKIP LOCKED, so {@code checkout} queues on the row locks here; on MySQL it skips them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(200)
+@State(Scope.Benchmark)
+public class DeviceCheckoutBenchmark {
+
+    private static final int DEVICES = 2_000;
+
+    private ConfigurableApplicationContext context;
+    private DeviceService service;
+    private DeviceCheckoutService checkoutService;
+    private List<Long> ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long claimed;
+        public long lost;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            claimed = 0;
+            lost = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ChalengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                // Arguments, not properties(): those are only defaults, and application.yml enables retention
+                .run("--logging.level.root=OFF", "--device.retention.enabled=false", "--DB_POOL_TIMEOUT_MS=30000");
+        service = context.getBean(DeviceService.class);
+        checkoutService = context.getBean(DeviceCheckoutService.class);
+        List<DeviceRequestDTO> requests = new ArrayList<>(DEVICES);
+        for (int i = 0; i < DEVICES; i++) {
+            requests.add(new DeviceRequestDTO("device-" + i, "Google", DeviceState.AVAILABLE));
+        }
+        ids = service.createAll(requests).ids();
+    }
+
+    @Setup(Level.Iteration)
+    public void releaseAll() {
+        for (int i = 0; i < ids.size(); i += DeviceCheckoutService.MAX_DEVICES) {
+            checkoutService.release(ids.subList(i, Math.min(ids.size(), i + DeviceCheckoutService.MAX_DEVICES)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void checkout(Outcome outcome) {
+        List<DeviceResponseDTO> claimed;
+        try {
+            claimed = checkoutService.checkout(null, 1);
+        } catch (RuntimeException e) {
+            outcome.failed++;
+            return;
+        }
+        if (claimed.isEmpty()) {
+            outcome.lost++;
+            return;
+        }
+        outcome.claimed++;
+        checkoutService.release(List.of(claimed.get(0).id()));
+    }
+
+    @Benchmark
+    public void pickAndPatch(Outcome outcome) {
+        List<DeviceResponseDTO> available = service.findByState(DeviceState.AVAILABLE, 0, 20).items();
+        if (available.isEmpty()) {
+            outcome.lost++;
+            return;
+        }
+        DeviceResponseDTO pick = available.get(ThreadLocalRandom.current().nextInt(available.size()));
+        try {
+            service.patch(pick.id(), new DeviceRequestDTO(null, null, DeviceState.IN_USE), pick.version());
+        } catch (OptimisticLockingFailureException | IllegalStateException e) {
+            outcome.lost++;
+            return;
+        } catch (RuntimeException e) {
+            outcome.failed++;
+            return;
+        }
+        outcome.claimed++;
+        service.patch(pick.id(), new DeviceRequestDTO(null, null, DeviceState.AVAILABLE), null);
+    }
+}
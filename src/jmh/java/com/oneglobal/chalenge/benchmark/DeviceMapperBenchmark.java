@@ -0,0 +1,65 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceMapperBenchmark {
+
+    private final DeviceMapper mapper = Mappers.getMapper(DeviceMapper.class);
+    private final DeviceRequestDTO patch = new DeviceRequestDTO("renamed", null, DeviceState.INACTIVE);
+    private Device target;
+
+    @State(Scope.Benchmark)
+    public static class Devices {
+
+        @Param({"100", "10000"})
+        int size;
+
+        List<Device> devices;
+
+        @Setup
+        public void setUp() {
+            devices = BenchmarkData.devices(size);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        target = BenchmarkData.devices(1).get(0);
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> toResponseDTOList(Devices state) {
+        return mapper.toResponseDTOList(state.devices);
+    }
+
+    @Benchmark
+    public Device updateEntityFromDto() {
+        mapper.updateEntityFromDto(patch, target);
+        return target;
+    }
+}
@@ -0,0 +1,64 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.search.DeviceNameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DeviceNameIndex} queries over a synthetic catalogue of model names, fed through the same
+ * change events the application uses. Queries mix unfinished words and typos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DeviceNameIndexBenchmark {
+
+    private static final String[] MODELS = {"iPhone", "Galaxy S", "Pixel", "Redmi Note", "Moto G", "Lumia", "Xperia"};
+    private static final String[] EDITIONS = {"", "Pro", "Pro Max", "Ultra", "Lite", "Plus", "Mini"};
+    private static final String[] BRANDS = {"Apple", "Samsung", "Google", "Xiaomi", "Motorola", "Nokia", "Sony"};
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"iph 15", "galxy s2", "pixl 8 pro"})
+    String query;
+
+    private DeviceNameIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new DeviceNameIndex(null, 0.5, new SimpleMeterRegistry());
+        for (int i = 0; i < size; i++) {
+            long id = i + 1L;
+            String name = MODELS[i % MODELS.length] + " " + (i / MODELS.length % 30) + " "
+                    + EDITIONS[i / 7 % EDITIONS.length];
+            index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, id, null,
+                    new DeviceResponseDTO(id, name, BRANDS[i % BRANDS.length], DeviceState.AVAILABLE, null, 0L)));
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 20);
+    }
+}
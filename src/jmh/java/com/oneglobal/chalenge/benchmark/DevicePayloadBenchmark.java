@@ -0,0 +1,150 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding cost of a device list in each negotiable format, configured as in
+ * {@code ContentNegotiationConfig}; decoding is what a client pays. The setup logs the raw and gzipped size of
+ * each, since bytes on the wire are the other half of the trade-off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DevicePayloadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(DevicePayloadBenchmark.class);
+    private static final TypeReference<List<DeviceResponseDTO>> LIST = new TypeReference<>() {};
+
+    @Param({"500", "10000"})
+    int size;
+
+    private ObjectWriter json;
+    private ObjectWriter smile;
+    private ObjectWriter cbor;
+    private ObjectReader jsonReader;
+    private ObjectReader smileReader;
+    private ObjectReader cborReader;
+    private List<DeviceResponseDTO> devices;
+    private byte[] jsonBytes;
+    private byte[] smileBytes;
+    private byte[] cborBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile()
+                .factory(SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor()
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        json = jsonMapper.writerFor(LIST);
+        smile = smileMapper.writerFor(LIST);
+        cbor = cborMapper.writerFor(LIST);
+        jsonReader = jsonMapper.readerFor(LIST);
+        smileReader = smileMapper.readerFor(LIST);
+        cborReader = cborMapper.readerFor(LIST);
+        devices = Mappers.getMapper(DeviceMapper.class).toResponseDTOList(BenchmarkData.devices(size));
+        jsonBytes = json.writeValueAsBytes(devices);
+        smileBytes = smile.writeValueAsBytes(devices);
+        cborBytes = cbor.writeValueAsBytes(devices);
+
+        logSize("json", jsonBytes);
+        logSize("smile", smileBytes);
+        logSize("cbor", cborBytes);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(json.writeValueAsBytes(devices));
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smile.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] smileGzip() throws IOException {
+        return gzip(smile.writeValueAsBytes(devices));
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] cborGzip() throws IOException {
+        return gzip(cbor.writeValueAsBytes(devices));
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> jsonDecode() throws IOException {
+        return jsonReader.readValue(jsonBytes);
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> smileDecode() throws IOException {
+        return smileReader.readValue(smileBytes);
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> cborDecode() throws IOException {
+        return cborReader.readValue(cborBytes);
+    }
+
+    private void logSize(String format, byte[] raw) throws IOException {
+        log.info("{}, {} devices: {} bytes, {} gzipped", format, size, raw.length, gzip(raw).length);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.ChalengeApplication;
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.DeviceService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of devices read the way the listing used to (managed entities copied by {@link DeviceMapper})
+ * against the constructor projection it uses now, both in a read-only transaction on the {@code h2} profile.
+ * Run with {@code -prof gc} to compare allocation per page as well as time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceReadPathBenchmark {
+
+    private static final int SEED_SIZE = 10_000;
+
+    @Param({"50", "1000"})
+    int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private DeviceRepository repository;
+    private DeviceMapper mapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ChalengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                // Arguments, not properties(): those are only defaults, and application.yml sets the cache type
+                .run("--spring.cache.type=none", "--logging.level.root=WARN");
+        context.getBean(DeviceService.class).createAll(BenchmarkData.requests(SEED_SIZE, 0));
+        repository = context.getBean(DeviceRepository.class);
+        mapper = context.getBean(DeviceMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> entities() {
+        long afterId = randomAfterId();
+        return readOnly.execute(status -> mapper.toResponseDTOList(entityManager
+                .createQuery("select d from Device d where d.id > :afterId order by d.id", Device.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(pageSize + 1)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> projection() {
+        long afterId = randomAfterId();
+        return readOnly.execute(status -> repository.findResponsesAfter(afterId, Limit.of(pageSize + 1)));
+    }
+
+    private long randomAfterId() {
+        return ThreadLocalRandom.current().nextLong(SEED_SIZE - pageSize);
+    }
+}
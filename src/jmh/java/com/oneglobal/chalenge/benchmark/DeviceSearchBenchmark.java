@@ -0,0 +1,132 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.ChalengeApplication;
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSearchCriteria;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.pagination.KeysetPage;
+import com.oneglobal.chalenge.service.DeviceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 50-device page of each indexed search through {@link DeviceService}, on a million devices in H2, with and
+ * without the device indexes. Brands are drawn from 500 values and states are skewed (5% INACTIVE), so the brand
+ * and INACTIVE filters are selective the way they are in production; creation times are one per second. The
+ * setup prints H2's plan for each query, showing which index it uses. H2's planner is not MySQL's, so check the
+ * plans with {@code EXPLAIN} on MySQL before relying on them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DeviceSearchBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int BRANDS = 500;
+    private static final int PAGE = 50;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final List<String> INDEXES =
+            List.of("idx_device_brand", "idx_device_state", "idx_device_state_brand", "idx_device_creation_time");
+    private static final String SELECT = "select d.id, d.name, d.brand, d.state, d.creation_time, d.version " +
+            "from device d where ";
+
+    @Param({"true", "false"})
+    boolean indexes;
+
+    private ConfigurableApplicationContext context;
+    private DeviceService service;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ChalengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .run("--spring.cache.type=none", "--logging.level.root=WARN", "--device.search.rebuild-interval=P1D");
+        service = context.getBean(DeviceService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("insert into device (id, name, brand, state, creation_time, state_changed_at, version) " +
+                "select x, concat('device-', x), concat('brand-', mod(x * 7919, " + BRANDS + ")), " +
+                "case when mod(x, 20) = 0 then 'INACTIVE' when mod(x, 10) = 1 then 'IN_USE' else 'AVAILABLE' end, " +
+                "dateadd(second, x, timestamp '2024-01-01 00:00:00'), null, 0 from system_range(1, " + ROWS + ")");
+        if (!indexes) {
+            INDEXES.forEach(index -> jdbc.update("drop index " + index));
+        }
+        jdbc.update("analyze");
+        explain(jdbc, "brand", SELECT + "d.brand = 'brand-42' and d.id > 500000 order by d.id fetch first 51 rows only");
+        explain(jdbc, "state", SELECT + "d.state = 'INACTIVE' and d.id > 500000 order by d.id fetch first 51 rows only");
+        explain(jdbc, "state and brand", SELECT + "d.brand = 'brand-42' and d.state = 'INACTIVE' and d.id > 0 " +
+                "order by d.id fetch first 51 rows only");
+        explain(jdbc, "created range", SELECT + "d.creation_time >= timestamp '2024-01-06 00:00:00' " +
+                "and d.creation_time < timestamp '2024-01-06 01:00:00' and d.id > 0 order by d.id fetch first 51 rows only");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public KeysetPage<DeviceResponseDTO> brand() {
+        return service.findByBrand(randomBrand(), randomAfterId(), PAGE);
+    }
+
+    @Benchmark
+    public KeysetPage<DeviceResponseDTO> state() {
+        return service.findByState(DeviceState.INACTIVE, randomAfterId(), PAGE);
+    }
+
+    /**
+     * About 100 devices match, so the page scans to the end of the matches.
+     */
+    @Benchmark
+    public KeysetPage<Device> stateAndBrand() {
+        return service.search(new DeviceSearchCriteria(randomBrand(), DeviceState.INACTIVE, null, null), 0, PAGE);
+    }
+
+    /**
+     * One hour of creation times, 3,600 devices.
+     */
+    @Benchmark
+    public KeysetPage<Device> createdRange() {
+        LocalDateTime from = CREATED.plusSeconds(ThreadLocalRandom.current().nextLong(ROWS - 3_600));
+        return service.search(new DeviceSearchCriteria(null, null, from, from.plusHours(1)), 0, PAGE);
+    }
+
+    private static String randomBrand() {
+        return "brand-" + ThreadLocalRandom.current().nextInt(BRANDS);
+    }
+
+    private static long randomAfterId() {
+        return ThreadLocalRandom.current().nextLong(ROWS / 2);
+    }
+
+    private void explain(JdbcTemplate jdbc, String query, String sql) {
+        Map<String, Object> plan = jdbc.queryForMap("explain " + sql);
+        System.out.printf("%nPlan for %s (indexes=%s):%n%s%n", query, indexes, plan.values().iterator().next());
+    }
+}
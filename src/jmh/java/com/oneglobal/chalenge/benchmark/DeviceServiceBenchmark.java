@@ -0,0 +1,111 @@
+package com.oneglobal.chalenge.benchmark;
+
+import com.oneglobal.chalenge.ChalengeApplication;
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.DeviceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DeviceService} hot paths against the full Spring context on the in-memory {@code h2} profile.
+ * The {@code createOneByOne}/{@code createAllBatched} pair compares per-row transactions with the
+ * chunked batch insert; both report time per device.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceServiceBenchmark {
+
+    private static final int SEED_SIZE = 10_000;
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"caffeine", "none"})
+    String cache;
+
+    private final AtomicLong sequence = new AtomicLong(SEED_SIZE);
+    private ConfigurableApplicationContext context;
+    private DeviceService service;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ChalengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                // Arguments, not properties(): those are only defaults, and application.yml sets the cache type
+                .run("--spring.cache.type=" + cache, "--logging.level.root=WARN");
+        service = context.getBean(DeviceService.class);
+        DeviceBatchResponseDTO seeded = service.createAll(BenchmarkData.requests(SEED_SIZE, 0));
+        ids = seeded.ids();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<DeviceResponseDTO> findById() {
+        return service.findById(randomId());
+    }
+
+    @Benchmark
+    public Device create() {
+        return service.create(BenchmarkData.request(sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Device patch() {
+        DeviceState state = ThreadLocalRandom.current().nextBoolean() ? DeviceState.AVAILABLE : DeviceState.INACTIVE;
+        return service.patch(randomId(), new DeviceRequestDTO(null, null, state), null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Device createOneByOne() {
+        long offset = sequence.getAndAdd(BATCH_SIZE);
+        Device last = null;
+        for (DeviceRequestDTO request : BenchmarkData.requests(BATCH_SIZE, offset)) {
+            last = service.create(request);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public DeviceBatchResponseDTO createAllBatched() {
+        return service.createAll(BenchmarkData.requests(BATCH_SIZE, sequence.getAndAdd(BATCH_SIZE)));
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
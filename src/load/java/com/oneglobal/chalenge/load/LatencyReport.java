@@ -0,0 +1,57 @@
+package com.oneglobal.chalenge.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-endpoint results of one measured run. Latencies are recorded in microseconds and reported in
+ * milliseconds; the full distributions are written as {@code .hgrm} files for HdrHistogram plotters.
+ * Goodput counts served requests that did not fail, so it stays flat under overload only if the server
+ * sheds the excess rather than letting every request slow down.
+ */
+record LatencyReport(String label, Duration elapsed, Map<Operation, Histogram> histograms,
+                     Map<Operation, Long> errors, Map<Operation, Long> shed, long dropped, long peakInFlight) {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    void print(PrintStream out) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf(Locale.ROOT, "%n== %s (%.1fs, %d dropped at the client, peak %d in flight) ==%n",
+                label, seconds, dropped, peakInFlight);
+        out.printf(Locale.ROOT, "%-22s %9s %9s %9s %7s %7s %9s %9s %9s %9s%n",
+                "endpoint", "served", "req/s", "good/s", "errors", "shed", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        histograms.forEach((operation, histogram) -> out.printf(Locale.ROOT,
+                "%-22s %9d %9.1f %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f%n",
+                operation.endpoint(),
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                (histogram.getTotalCount() - errors.get(operation)) / seconds,
+                errors.get(operation),
+                shed.get(operation),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            String name = label + "-" + entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name)))) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,94 @@
+package com.oneglobal.chalenge.load;
+
+import com.oneglobal.chalenge.ChalengeApplication;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.DeviceService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Boots the application on the in-memory {@code h2} profile, seeds it, and drives a weighted request mix at a
+ * fixed arrival rate, printing throughput and latency percentiles per endpoint. Everything runs in this JVM on
+ * loopback, so no network access or external services are needed. See {@link LoadOptions} for the options.
+ */
+public final class LoadHarness {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Google", "Xiaomi", "Motorola", "Nokia"};
+    private static final int SEED_CHUNK = 5_000;
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        for (boolean virtualThreads : options.threadModes()) {
+            for (boolean limiter : options.limiterModes()) {
+                String label = (virtualThreads ? "virtual-threads" : "platform-threads")
+                        + (limiter ? "-limited" : "-unlimited");
+                run(options, label, virtualThreads, limiter);
+            }
+        }
+    }
+
+    private static void run(LoadOptions options, String label, boolean virtualThreads, boolean limiter)
+            throws Exception {
+        try (ConfigurableApplicationContext app = start(virtualThreads, limiter);
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(clientExecutor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build()) {
+            List<Long> ids = seed(app.getBean(DeviceService.class), options.devices());
+            URI baseUri = URI.create("http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/");
+            OpenModelDriver driver = new OpenModelDriver(client, baseUri, ids, options);
+
+            System.out.printf("%s: seeded %d devices, warming up for %s at %d req/s%n",
+                    label, ids.size(), options.warmup(), options.rate());
+            driver.run(label, options.warmup());
+            LatencyReport report = driver.run(label, options.duration());
+            report.print(System.out);
+            report.write(options.outputDir());
+        }
+    }
+
+    static String brand(int i) {
+        return BRANDS[Math.floorMod(i, BRANDS.length)];
+    }
+
+    /**
+     * The run's settings are passed as command-line arguments: {@code properties(...)} would only set defaults,
+     * which {@code application.yml} overrides.
+     */
+    private static ConfigurableApplicationContext start(boolean virtualThreads, boolean limiter) {
+        return new SpringApplicationBuilder(ChalengeApplication.class)
+                .profiles("h2")
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--device.limiter.enabled=" + limiter,
+                        "--logging.level.root=WARN");
+    }
+
+    private static List<Long> seed(DeviceService service, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset += SEED_CHUNK) {
+            List<DeviceRequestDTO> chunk = new ArrayList<>();
+            for (int i = offset; i < Math.min(count, offset + SEED_CHUNK); i++) {
+                chunk.add(new DeviceRequestDTO("device-" + i, brand(i), i % 10 == 0 ? DeviceState.IN_USE : DeviceState.AVAILABLE));
+            }
+            DeviceBatchResponseDTO response = service.createAll(chunk);
+            ids.addAll(response.ids());
+        }
+        return ids;
+    }
+}
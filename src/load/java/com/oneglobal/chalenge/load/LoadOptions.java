@@ -0,0 +1,90 @@
+package com.oneglobal.chalenge.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line options of the {@link LoadHarness}, given as {@code --name=value}.
+ *
+ * @param devices     devices seeded before the run
+ * @param rate        requests started per second, independent of how fast responses come back
+ * @param warmup      time driven at the target rate before measuring
+ * @param duration    measured time
+ * @param mix         relative weight of each operation, e.g. {@code get:90,patch:5,search:5}
+ * @param threadModes whether each run serves requests on virtual threads; {@code both} runs the mix twice
+ * @param limiterModes whether each run keeps the adaptive concurrency limiter on; {@code both} runs the mix twice
+ * @param maxInFlight requests allowed outstanding before new arrivals are dropped and counted
+ * @param outputDir   where the HDR percentile distributions are written
+ */
+record LoadOptions(int devices, int rate, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+                   List<Boolean> threadModes, List<Boolean> limiterModes, int maxInFlight, Path outputDir) {
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>(Map.ofEntries(
+                Map.entry("devices", "10000"),
+                Map.entry("rate", "500"),
+                Map.entry("warmup", "PT10S"),
+                Map.entry("duration", "PT30S"),
+                Map.entry("mix", "get:90,patch:5,search:5"),
+                Map.entry("threads", "platform"),
+                Map.entry("limiter", "on"),
+                Map.entry("max-in-flight", "5000"),
+                Map.entry("output", "target/load")));
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + "; known options are " + values.keySet());
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+        return new LoadOptions(
+                Integer.parseInt(values.get("devices")),
+                Integer.parseInt(values.get("rate")),
+                Duration.parse(values.get("warmup")),
+                Duration.parse(values.get("duration")),
+                parseMix(values.get("mix")),
+                parseThreadModes(values.get("threads")),
+                parseLimiterModes(values.get("limiter")),
+                Integer.parseInt(values.get("max-in-flight")),
+                Path.of(values.get("output")));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix but got " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private static List<Boolean> parseThreadModes(String threads) {
+        return switch (threads) {
+            case "platform" -> List.of(false);
+            case "virtual" -> List.of(true);
+            case "both" -> List.of(false, true);
+            default -> throw new IllegalArgumentException("--threads must be platform, virtual or both");
+        };
+    }
+
+    private static List<Boolean> parseLimiterModes(String limiter) {
+        return switch (limiter) {
+            case "on" -> List.of(true);
+            case "off" -> List.of(false);
+            case "both" -> List.of(false, true);
+            default -> throw new IllegalArgumentException("--limiter must be on, off or both");
+        };
+    }
+}
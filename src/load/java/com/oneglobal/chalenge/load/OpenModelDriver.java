@@ -0,0 +1,126 @@
+package com.oneglobal.chalenge.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts requests on a fixed schedule (an open workload model) rather than from a fixed pool of clients, so a
+ * slow server faces a growing queue instead of a politely slowing load. Latency is measured from each
+ * request's scheduled start, which keeps coordinated omission out of the percentiles. Requests the server sheds
+ * with 503 or 429 are counted apart from errors and left out of the percentiles, which describe served requests.
+ * The most requests outstanding at once is reported too: it is the number of concurrent clients the server faced.
+ */
+final class OpenModelDriver {
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final List<Long> ids;
+    private final LoadOptions options;
+    private final Operation[] wheel;
+
+    OpenModelDriver(HttpClient client, URI baseUri, List<Long> ids, LoadOptions options) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.ids = ids;
+        this.options = options;
+        List<Operation> slots = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("The workload mix has no positive weights");
+        }
+        this.wheel = slots.toArray(Operation[]::new);
+    }
+
+    LatencyReport run(String label, Duration duration) throws InterruptedException {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> shed = new EnumMap<>(Operation.class);
+        for (Operation operation : options.mix().keySet()) {
+            recorders.put(operation, new Recorder(TimeUnit.MINUTES.toMicros(1), 3));
+            errors.put(operation, new LongAdder());
+            shed.put(operation, new LongAdder());
+        }
+        LongAdder dropped = new LongAdder();
+        LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0);
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * intervalNanos;
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Operation operation = wheel[random.nextInt(wheel.length)];
+                if (!inFlight.tryAcquire()) {
+                    dropped.increment();
+                    continue;
+                }
+                peakInFlight.accumulate(options.maxInFlight() - inFlight.availablePermits());
+                long id = ids.get(random.nextInt(ids.size()));
+                executor.execute(() -> {
+                    boolean served = true;
+                    try {
+                        int status = client.send(operation.request(baseUri, id, ThreadLocalRandom.current()),
+                                BodyHandlers.discarding()).statusCode();
+                        if (status == 503 || status == 429) {
+                            served = false;
+                            shed.get(operation).increment();
+                        } else if (status >= 400) {
+                            errors.get(operation).increment();
+                        }
+                    } catch (IOException e) {
+                        errors.get(operation).increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        if (served) {
+                            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                            recorders.get(operation).recordValue(Math.min(micros, TimeUnit.MINUTES.toMicros(1)));
+                        }
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        Map<Operation, Long> shedCounts = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.sum()));
+        shed.forEach((operation, count) -> shedCounts.put(operation, count.sum()));
+        return new LatencyReport(label, elapsed, histograms, errorCounts, shedCounts, dropped.sum(),
+                peakInFlight.get());
+    }
+}
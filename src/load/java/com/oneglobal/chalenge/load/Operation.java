@@ -0,0 +1,75 @@
+package com.oneglobal.chalenge.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests a workload mix can be made of, one per {@code DeviceController} endpoint under test.
+ */
+enum Operation {
+
+    GET("GET /devices/{id}") {
+        @Override
+        HttpRequest request(URI devices, long id, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(devices.resolve("devices/" + id)).GET().build();
+        }
+    },
+    LIST("GET /devices") {
+        @Override
+        HttpRequest request(URI devices, long id, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(devices.resolve("devices?limit=50")).GET().build();
+        }
+    },
+    SEARCH("GET /devices/search") {
+        @Override
+        HttpRequest request(URI devices, long id, ThreadLocalRandom random) {
+            String query = "brand=" + LoadHarness.brand(random.nextInt()) + "&state=" + randomState(random) + "&limit=50";
+            return HttpRequest.newBuilder(devices.resolve("devices/search?" + query)).GET().build();
+        }
+    },
+    STATS("GET /devices/stats") {
+        @Override
+        HttpRequest request(URI devices, long id, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(devices.resolve("devices/stats")).GET().build();
+        }
+    },
+    CREATE("POST /devices") {
+        @Override
+        HttpRequest request(URI devices, long id, ThreadLocalRandom random) {
+            String body = "{\"name\":\"load-" + random.nextLong(Long.MAX_VALUE) + "\",\"brand\":\""
+                    + LoadHarness.brand(random.nextInt()) + "\",\"state\":\"AVAILABLE\"}";
+            return json(devices.resolve("devices"), "POST", body);
+        }
+    },
+    PATCH("PATCH /devices/{id}") {
+        @Override
+        HttpRequest request(URI devices, long id, ThreadLocalRandom random) {
+            return json(devices.resolve("devices/" + id), "PATCH", "{\"state\":\"" + randomState(random) + "\"}");
+        }
+    };
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    abstract HttpRequest request(URI base, long id, ThreadLocalRandom random);
+
+    private static HttpRequest json(URI uri, String method, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .method(method, BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String randomState(ThreadLocalRandom random) {
+        return random.nextBoolean() ? "AVAILABLE" : "INACTIVE";
+    }
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Measures startup per mode: "started" is JVM start to the "Started ChalengeApplication" log line, "first request"
+# is launch to the first answered GET on $FIRST_REQUEST (measured here, from outside the process).
+#
+#   mvn -Paot -DskipTests package                 # jar with AOT code; -Pnative native:compile for the native mode
+#   src/load/startup-time.sh jvm cds aot aot-cds  # modes to compare, in order (native needs target/challenge)
+#
+# The jar is extracted into target/app, where the CDS archive is trained on first use like the Docker image does.
+# APP_ARGS is appended to every run and CLASSPATH_EXTRA to the JVM classpath, e.g. to start against H2 without MySQL:
+#   CLASSPATH_EXTRA=~/.m2/repository/com/h2database/h2/2.3.232/h2-2.3.232.jar APP_ARGS="--spring.datasource.url=\
+#   jdbc:h2:mem:devices;MODE=MySQL --spring.datasource.username=sa --spring.datasource.password=" src/load/startup-time.sh
+set -eu
+
+RUNS=${RUNS:-3}
+PORT=${PORT:-8080}
+FIRST_REQUEST=${FIRST_REQUEST:-/devices/multi?ids=1}
+APP_ARGS=${APP_ARGS:-}
+JAVA_OPTS=${JAVA_OPTS:-}
+MAIN=com.oneglobal.chalenge.ChalengeApplication
+
+cd "$(dirname "$0")/../.."
+jar=$(ls target/challenge-*.jar | grep -v original | head -1)
+app=target/app
+if [ ! -d "$app" ] || [ "$jar" -nt "$app" ]; then
+    rm -rf "$app"
+    java -Djarmode=tools -jar "$jar" extract --destination "$app" > /dev/null
+fi
+app_jar=$(ls "$app"/*.jar)
+classpath=$app_jar${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}
+
+train() {
+    [ -f "$app/app.jsa" ] && return
+    echo "Training the CDS archive..."
+    java -XX:ArchiveClassesAtExit="$app/app.jsa" -Dspring.context.exit=onRefresh -jar "$app_jar" \
+        --spring.flyway.enabled=false > "$app/train.log" 2>&1
+}
+
+command_for() {
+    case $1 in
+        jvm)     echo "java $JAVA_OPTS -cp $classpath $MAIN" ;;
+        cds)     echo "java -XX:SharedArchiveFile=$app/app.jsa $JAVA_OPTS -cp $classpath $MAIN" ;;
+        aot)     echo "java -Dspring.aot.enabled=true $JAVA_OPTS -cp $classpath $MAIN" ;;
+        aot-cds) echo "java -XX:SharedArchiveFile=$app/app.jsa -Dspring.aot.enabled=true $JAVA_OPTS -cp $classpath $MAIN" ;;
+        native)  echo "target/challenge" ;;
+        *)       echo "Unknown mode $1 (jvm, cds, aot, aot-cds or native)" >&2; exit 2 ;;
+    esac
+}
+
+millis() {
+    date +%s%3N
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+modes=("$@")
+[ $# -gt 0 ] || modes=(jvm cds aot aot-cds)
+
+printf '%-8s %12s %18s\n' mode "started (ms)" "first request (ms)"
+for m in "${modes[@]}"; do
+    case $m in cds|aot-cds) train ;; esac
+    cmd=$(command_for "$m")
+    started=()
+    first=()
+    for _ in $(seq "$RUNS"); do
+        log=$app/$m.log
+        launched=$(millis)
+        # shellcheck disable=SC2086
+        $cmd --server.port="$PORT" $APP_ARGS > "$log" 2>&1 &
+        pid=$!
+        until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT$FIRST_REQUEST")" != 000 ]; do
+            kill -0 "$pid" 2> /dev/null || { echo "$m exited, see $log" >&2; exit 1; }
+            sleep 0.05
+        done
+        first+=($(($(millis) - launched)))
+        started+=($(sed -n 's/.*Started .* (process running for \([0-9.]*\)).*/\1/p' "$log" | awk '{ printf "%d", $1 * 1000 }'))
+        kill "$pid"
+        wait "$pid" || true
+    done
+    printf '%-8s %12s %18s\n' "$m" "$(printf '%s\n' "${started[@]}" | median)" \
+        "$(printf '%s\n' "${first[@]}" | median)"
+done
@@ -0,0 +1,29 @@
+package com.oneglobal.chalenge.config;
+
+import org.hibernate.generator.internal.CurrentTimestampGeneration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * The clock behind every stored timestamp. Timestamps are {@code LocalDateTime}s in UTC whatever the time zone of
+ * the JVM or the database, so times set by the application, by Hibernate and from client reports compare correctly.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    /**
+     * {@code @CreationTimestamp} otherwise reads the JVM's default time zone.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateClock(Clock clock) {
+        return properties -> properties.put(CurrentTimestampGeneration.CLOCK_SETTING_NAME, clock);
+    }
+}
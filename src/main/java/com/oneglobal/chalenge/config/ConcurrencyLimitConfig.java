@@ -0,0 +1,35 @@
+package com.oneglobal.chalenge.config;
+
+import com.oneglobal.chalenge.limiter.AimdLimiter;
+import com.oneglobal.chalenge.limiter.ConcurrencyLimitFilter;
+import com.oneglobal.chalenge.limiter.LimiterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Adaptive concurrency limits for the device endpoints; {@code device.limiter.enabled=false} removes them.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "device.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LimiterProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(LimiterProperties properties,
+                                                                                 MeterRegistry registry) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new AimdLimiter(properties.read(), properties.backoffRatio()),
+                new AimdLimiter(properties.write(), properties.backoffRatio()),
+                new AimdLimiter(properties.bulk(), properties.backoffRatio()),
+                registry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        // After the observation filter, so shed requests still show up in http.server.requests as 503s
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package com.oneglobal.chalenge.controller;
+
+import com.oneglobal.chalenge.entity.dto.ArchivedDeviceDTO;
+import com.oneglobal.chalenge.pagination.CursorCodec;
+import com.oneglobal.chalenge.pagination.KeysetPage;
+import com.oneglobal.chalenge.service.retention.DeviceArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/devices/archive")
+@Tag(name = "Device archive", description = "Read-only access to devices moved out by the retention job")
+public class DeviceArchiveController {
+
+    private final DeviceArchiveService service;
+
+    public DeviceArchiveController(DeviceArchiveService service) {
+        this.service = service;
+    }
+
+    @Operation(summary = "List archived devices",
+            description = "Archived devices in id order, optionally filtered by brand. Paginated like the device listing.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One page of archived devices"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
+    })
+    @GetMapping
+    public ResponseEntity<List<ArchivedDeviceDTO>> getAll(
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String next,
+            @RequestParam(defaultValue = DeviceController.DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int pageSize = Math.min(limit, DeviceController.MAX_PAGE_SIZE);
+        KeysetPage<ArchivedDeviceDTO> page = service.findAll(brand, CursorCodec.decode(next), pageSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("next", CursorCodec.encode(page.nextKey()))
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+
+    @Operation(summary = "Get an archived device by its original ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archived device found"),
+            @ApiResponse(responseCode = "404", description = "No archived device with this ID")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ArchivedDeviceDTO> getById(@PathVariable Long id) {
+        return ResponseEntity.of(service.findById(id));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+}
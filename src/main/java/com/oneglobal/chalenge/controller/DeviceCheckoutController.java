@@ -0,0 +1,67 @@
+package com.oneglobal.chalenge.controller;
+
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.service.checkout.DeviceCheckoutService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/devices")
+@Tag(name = "Device checkout", description = "Atomically claim AVAILABLE devices and hand them back")
+public class DeviceCheckoutController {
+
+    private final DeviceCheckoutService service;
+
+    public DeviceCheckoutController(DeviceCheckoutService service) {
+        this.service = service;
+    }
+
+    @Operation(summary = "Claim AVAILABLE devices",
+            description = "Moves up to count AVAILABLE devices, optionally of one brand, to IN_USE in one transaction. " +
+                    "Concurrent callers never receive the same device and do not wait on each other's rows. " +
+                    "Fewer than count devices are returned when not enough are free.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The claimed devices, now IN_USE"),
+            @ApiResponse(responseCode = "400", description = "count is not between 1 and 500"),
+            @ApiResponse(responseCode = "409", description = "No AVAILABLE device matched")
+    })
+    @PostMapping("/checkout")
+    public ResponseEntity<List<DeviceResponseDTO>> checkout(
+            @RequestParam(required = false) String brand,
+            @RequestParam(defaultValue = "1") int count) {
+        List<DeviceResponseDTO> claimed = service.checkout(brand, count);
+        if (claimed.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(claimed);
+    }
+
+    @Operation(summary = "Release claimed devices",
+            description = "Moves the given devices from IN_USE back to AVAILABLE. Ids that are unknown or not IN_USE " +
+                    "are ignored and left out of the response.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The released devices, now AVAILABLE"),
+            @ApiResponse(responseCode = "400", description = "No ids, or more than 500")
+    })
+    @PostMapping("/release")
+    public ResponseEntity<List<DeviceResponseDTO>> release(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(service.release(ids));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+}
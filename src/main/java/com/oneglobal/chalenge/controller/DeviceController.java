@@ -1,19 +1,48 @@
 package com.oneglobal.chalenge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceMultiGetResponseDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSearchCriteria;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStatsDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionResponseDTO;
 import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.idempotency.IdempotencyKeyReusedException;
+import com.oneglobal.chalenge.idempotency.IdempotencyStore;
 import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.pagination.CursorCodec;
+import com.oneglobal.chalenge.pagination.KeysetPage;
+import com.oneglobal.chalenge.service.DeviceBatchReader;
 import com.oneglobal.chalenge.service.DeviceService;
+import com.oneglobal.chalenge.service.DeviceStatsService;
+import com.oneglobal.chalenge.service.ingest.DeviceStateIngestor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -21,57 +50,206 @@ import java.util.List;
 @Tag(name = "Devices", description = "Endpoints for managing device inventory")
 public class DeviceController {
 
+    static final String DEFAULT_PAGE_SIZE = "50";
+    static final int MAX_PAGE_SIZE = 500;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final DeviceService service;
     private final DeviceMapper mapper;
+    private final DeviceStatsService statsService;
+    private final ObjectMapper objectMapper;
+    private final DeviceStateIngestor stateIngestor;
+    private final IdempotencyStore idempotency;
+    private final DeviceBatchReader batchReader;
 
-    public DeviceController(DeviceService service, DeviceMapper mapper) {
+    public DeviceController(DeviceService service, DeviceMapper mapper, DeviceStatsService statsService,
+                            ObjectMapper objectMapper, DeviceStateIngestor stateIngestor,
+                            IdempotencyStore idempotency, DeviceBatchReader batchReader) {
         this.service = service;
         this.mapper = mapper;
+        this.statsService = statsService;
+        this.objectMapper = objectMapper;
+        this.stateIngestor = stateIngestor;
+        this.idempotency = idempotency;
+        this.batchReader = batchReader;
     }
 
-    @Operation(summary = "Create a new device")
-    @ApiResponse(responseCode = "201", description = "Device created successfully")
+    @Operation(summary = "Create a new device",
+            description = "Send an Idempotency-Key header to make retries safe: a repeated key returns the original " +
+                    "response, marked with Idempotent-Replayed: true, without creating another device.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Device created successfully"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request")
+    })
     @PostMapping
-    public ResponseEntity<DeviceResponseDTO> create(@RequestBody DeviceRequestDTO dto) {
-        Device newDevice = service.create(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toResponseDTO(newDevice));
+    public ResponseEntity<DeviceResponseDTO> create(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody DeviceRequestDTO dto) {
+        if (idempotencyKey == null) {
+            Device newDevice = service.create(dto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toResponseDTO(newDevice));
+        }
+        IdempotencyStore.Result<DeviceResponseDTO> result = idempotency.execute("POST /devices", idempotencyKey, dto,
+                () -> mapper.toResponseDTO(service.create(dto)), device -> 1);
+        return replayAware(ResponseEntity.status(HttpStatus.CREATED), result);
     }
 
-    @Operation(summary = "List all devices")
-    @ApiResponse(responseCode = "200", description = "List of all devices")
+    @Operation(summary = "Create devices in bulk",
+            description = "Inserts up to 10,000 devices using batched writes. Returns the generated IDs in request order " +
+                    "(null for rejected items) together with the per-item errors.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see errors for rejected items"),
+            @ApiResponse(responseCode = "400", description = "Batch exceeds the maximum size"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<DeviceBatchResponseDTO> createAll(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody List<DeviceRequestDTO> dtos) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(service.createAll(dtos));
+        }
+        IdempotencyStore.Result<DeviceBatchResponseDTO> result = idempotency.execute("POST /devices/batch",
+                idempotencyKey, dtos, () -> service.createAll(dtos), batch -> batch.ids().size());
+        return replayAware(ResponseEntity.ok(), result);
+    }
+
+    @Operation(summary = "List devices page by page",
+            description = "Keyset pagination ordered by ID. Follow the Link header (rel=next) to fetch the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One page of devices"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
+    })
     @GetMapping
-    public ResponseEntity<List<DeviceResponseDTO>> getAll() {
-        List<Device> devices = service.findAll();
-        return ResponseEntity.ok(mapper.toResponseDTOList(devices));
+    public ResponseEntity<List<DeviceResponseDTO>> getAll(
+            @RequestParam(required = false) String next,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = boundedLimit(limit);
+        KeysetPage<DeviceResponseDTO> page = service.findAll(CursorCodec.decode(next), pageSize);
+        return pageResponse(page, pageSize);
     }
 
-    @Operation(summary = "Get a single device by its ID")
+    @Operation(summary = "Get a single device by its ID",
+            description = "Returns a strong ETag; send it back in If-None-Match to get 304 when the device is unchanged.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device found"),
+            @ApiResponse(responseCode = "304", description = "Device unchanged since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Device not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<DeviceResponseDTO> getById(@PathVariable Long id) {
+    public ResponseEntity<DeviceResponseDTO> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return service.findById(id)
-                .map(mapper::toResponseDTO)
-                .map(ResponseEntity::ok)
+                .map(device -> {
+                    String etag = ETags.ofVersion(device.version());
+                    if (ETags.matches(ifNoneMatch, etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<DeviceResponseDTO>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(device);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Find devices by brand")
-    @ApiResponse(responseCode = "200", description = "List of devices matching the brand")
+    @Operation(summary = "Get many devices by their IDs",
+            description = "Resolves up to device.multi-get.max-ids (default 500) comma-separated ids in one call. " +
+                    "Devices come back in the requested order; ids that do not exist are listed in missing.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The devices found and the ids that were not"),
+            @ApiResponse(responseCode = "400", description = "No ids, or more than the configured maximum")
+    })
+    @GetMapping("/multi")
+    public ResponseEntity<DeviceMultiGetResponseDTO> getByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(batchReader.findAllById(ids));
+    }
+
+    @Operation(summary = "Search devices by any combination of criteria",
+            description = "Combines brand, state and a creation time range [createdFrom, createdTo) in one query. " +
+                    "Paginated like the device listing.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One page of devices matching all given criteria"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or criteria")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<DeviceResponseDTO>> search(
+            DeviceSearchCriteria criteria,
+            @RequestParam(required = false) String next,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = boundedLimit(limit);
+        KeysetPage<Device> page = service.search(criteria, CursorCodec.decode(next), pageSize);
+        return pageResponse(new KeysetPage<>(mapper.toResponseDTOList(page.items()), page.nextKey()), pageSize);
+    }
+
+    @Operation(summary = "Inventory statistics",
+            description = "Device counts by state, by brand and by brand and state, served from in-memory counters.")
+    @ApiResponse(responseCode = "200", description = "Current inventory counts")
+    @GetMapping("/stats")
+    public ResponseEntity<DeviceStatsDTO> getStats() {
+        return ResponseEntity.ok(statsService.getStats());
+    }
+
+    @Operation(summary = "Find devices by brand", description = "Paginated like the device listing.")
+    @ApiResponse(responseCode = "200", description = "One page of devices matching the brand")
     @GetMapping("/search/brand")
-    public ResponseEntity<List<DeviceResponseDTO>> getByBrand(@RequestParam String brand) {
-        List<Device> devices = service.findByBrand(brand);
-        return ResponseEntity.ok(mapper.toResponseDTOList(devices));
+    public ResponseEntity<List<DeviceResponseDTO>> getByBrand(
+            @RequestParam String brand,
+            @RequestParam(required = false) String next,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = boundedLimit(limit);
+        KeysetPage<DeviceResponseDTO> page = service.findByBrand(brand, CursorCodec.decode(next), pageSize);
+        return pageResponse(page, pageSize);
     }
 
-    @Operation(summary = "Find devices by state")
-    @ApiResponse(responseCode = "200", description = "List of devices matching the state")
+    @Operation(summary = "Find devices by state", description = "Paginated like the device listing.")
+    @ApiResponse(responseCode = "200", description = "One page of devices matching the state")
     @GetMapping("/search/state")
-    public ResponseEntity<List<DeviceResponseDTO>> getByState(@RequestParam DeviceState state) {
-        List<Device> devices = service.findByState(state);
-        return ResponseEntity.ok(mapper.toResponseDTOList(devices));
+    public ResponseEntity<List<DeviceResponseDTO>> getByState(
+            @RequestParam DeviceState state,
+            @RequestParam(required = false) String next,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = boundedLimit(limit);
+        KeysetPage<DeviceResponseDTO> page = service.findByState(state, CursorCodec.decode(next), pageSize);
+        return pageResponse(page, pageSize);
+    }
+
+    @Operation(summary = "Find devices by partial or misspelled name",
+            description = "Matches the query against name and brand, tolerating typos (e.g. \"galxy\") and " +
+                    "unfinished words (e.g. \"iph 15\"). Returns the best matches first; not paginated.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Best matching devices, best first"),
+            @ApiResponse(responseCode = "400", description = "Missing or overlong query, or invalid limit")
+    })
+    @GetMapping("/search/name")
+    public ResponseEntity<List<DeviceResponseDTO>> searchByName(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(service.searchByName(q, boundedLimit(limit)));
+    }
+
+    @Operation(summary = "Export devices as NDJSON",
+            description = "Streams every device (optionally filtered by state and/or brand) as one JSON object per line.")
+    @ApiResponse(responseCode = "200", description = "Newline-delimited JSON stream of devices")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) DeviceState state,
+            @RequestParam(required = false) String brand) {
+        ObjectWriter writer = objectMapper.writerFor(DeviceResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                service.export(state, brand, dto -> {
+                    try {
+                        writer.writeValue(generator, dto);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @Operation(summary = "Fully update an existing device",
@@ -79,13 +257,21 @@ public class DeviceController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device updated successfully"),
             @ApiResponse(responseCode = "404", description = "Device not found"),
-            @ApiResponse(responseCode = "409", description = "Conflict: Update violates business rules (e.g., updating Name/Brand while IN_USE)")
+            @ApiResponse(responseCode = "409", description = "Conflict: Update violates business rules (e.g., updating Name/Brand while IN_USE)"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current device version")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<DeviceResponseDTO> update(@PathVariable Long id, @RequestBody DeviceRequestDTO dto) {
+    public ResponseEntity<DeviceResponseDTO> update(
+            @PathVariable Long id,
+            @RequestBody DeviceRequestDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Device updatedDevice = service.update(id, dto);
-            return ResponseEntity.ok(mapper.toResponseDTO(updatedDevice));
+            Device updatedDevice = service.update(id, dto, ETags.expectedVersion(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(ETags.ofVersion(updatedDevice.getVersion()))
+                    .body(mapper.toResponseDTO(updatedDevice));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
@@ -98,13 +284,21 @@ public class DeviceController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device updated successfully"),
             @ApiResponse(responseCode = "404", description = "Device not found"),
-            @ApiResponse(responseCode = "409", description = "Conflict: Update violates business rules (e.g., updating Name/Brand while IN_USE)")
+            @ApiResponse(responseCode = "409", description = "Conflict: Update violates business rules (e.g., updating Name/Brand while IN_USE)"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current device version")
     })
     @PatchMapping("/{id}")
-    public ResponseEntity<DeviceResponseDTO> patch(@PathVariable Long id, @RequestBody DeviceRequestDTO dto) {
+    public ResponseEntity<DeviceResponseDTO> patch(
+            @PathVariable Long id,
+            @RequestBody DeviceRequestDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Device patchedDevice = service.patch(id, dto);
-            return ResponseEntity.ok(mapper.toResponseDTO(patchedDevice));
+            Device patchedDevice = service.patch(id, dto, ETags.expectedVersion(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(ETags.ofVersion(patchedDevice.getVersion()))
+                    .body(mapper.toResponseDTO(patchedDevice));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
@@ -112,22 +306,104 @@ public class DeviceController {
         }
     }
 
+    @Operation(summary = "Move many devices to a new state at once",
+            description = "Applies the target state to every device matching all given filters (ids, brand, current state) " +
+                    "with set-based updates. Devices that are IN_USE are not moved and are reported as skipped, unless " +
+                    "includeInUse is true, for example to release every IN_USE device of a brand back to AVAILABLE.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transition applied"),
+            @ApiResponse(responseCode = "400", description = "Missing target state or filter")
+    })
+    @PostMapping("/state-transitions")
+    public ResponseEntity<DeviceStateTransitionResponseDTO> transitionState(
+            @RequestBody DeviceStateTransitionRequestDTO request) {
+        return ResponseEntity.ok(service.transitionState(request));
+    }
+
+    @Operation(summary = "Report observed device states",
+            description = "Accepts up to 10,000 (id, state, timestamp) reports. Reports are coalesced so only the newest " +
+                    "state per device is written, in batches shortly after acceptance. Unknown ids are ignored when flushed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reports accepted; see errors for rejected items"),
+            @ApiResponse(responseCode = "400", description = "Too many reports in one request"),
+            @ApiResponse(responseCode = "503", description = "Ingestion buffer is full; retry the rejected items later")
+    })
+    @PostMapping("/state-reports")
+    public ResponseEntity<DeviceStateReportResponseDTO> reportStates(@RequestBody List<DeviceStateReportDTO> reports) {
+        DeviceStateReportResponseDTO response = stateIngestor.ingest(reports);
+        if (response.bufferFull()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
+        }
+        return ResponseEntity.accepted().body(response);
+    }
+
     @Operation(summary = "Delete a device by its ID",
             description = "Deletes a device. Note: Devices in the IN_USE state cannot be deleted.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Device deleted successfully"),
             @ApiResponse(responseCode = "404", description = "Device not found"),
-            @ApiResponse(responseCode = "409", description = "Conflict: Cannot delete a device that is IN_USE")
+            @ApiResponse(responseCode = "409", description = "Conflict: Cannot delete a device that is IN_USE"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current device version")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    public ResponseEntity<Void> delete(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            service.delete(id);
+            service.delete(id, ETags.expectedVersion(ifMatch));
             return ResponseEntity.noContent().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Void> handleIdempotencyKeyReused() {
+        return ResponseEntity.unprocessableEntity().build();
+    }
+
+    private static <T> ResponseEntity<T> replayAware(ResponseEntity.BodyBuilder response,
+                                                     IdempotencyStore.Result<T> result) {
+        if (result.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return response.body(result.value());
+    }
+
+    private ResponseEntity<List<DeviceResponseDTO>> pageResponse(KeysetPage<DeviceResponseDTO> page, int pageSize) {
+        String etag = ETags.ofPage(page.items(), page.nextKey());
+        HttpServletRequest request =
+                ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (page.hasNext()) {
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("next", CursorCodec.encode(page.nextKey()))
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+
+    private static int boundedLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 }
\ No newline at end of file
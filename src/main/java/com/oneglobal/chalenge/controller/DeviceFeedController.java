@@ -0,0 +1,39 @@
+package com.oneglobal.chalenge.controller;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.feed.DeviceChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/devices")
+@Tag(name = "Devices", description = "Endpoints for managing device inventory")
+public class DeviceFeedController {
+
+    private final DeviceChangeFeed feed;
+
+    public DeviceFeedController(DeviceChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    @Operation(summary = "Stream device changes",
+            description = "Server-Sent Events for every committed create, update, patch, delete and archiving " +
+                    "(events created, updated, deleted, archived) and bulk state transition (transitioned), optionally " +
+                    "filtered by brand and state. Reconnect with Last-Event-ID to resume; a reset event means changes " +
+                    "were missed and the list should be re-read. Slow consumers are sent reset and disconnected.")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) String brand,
+                              @RequestParam(required = false) DeviceState state,
+                              @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return feed.subscribe(brand, state, lastEventId);
+    }
+}
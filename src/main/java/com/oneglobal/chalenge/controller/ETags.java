@@ -0,0 +1,76 @@
+package com.oneglobal.chalenge.controller;
+
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+
+/**
+ * Entity tags derived from the {@code Device} version column, so they can be compared without
+ * serializing the representation. Single devices get strong tags usable with {@code If-Match};
+ * pages get weak tags, since they only serve {@code If-None-Match} and the container does not
+ * compress responses that carry a strong tag.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String ofVersion(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofPage(List<DeviceResponseDTO> devices, Long nextKey) {
+        long hash = 0xcbf29ce484222325L;
+        for (DeviceResponseDTO device : devices) {
+            hash = mix(hash, device.id());
+            hash = mix(hash, device.version());
+        }
+        hash = mix(hash, nextKey);
+        return "W/\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires: the {@code W/} prefix is ignored on both sides.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header expects, or {@code null} when any version
+     * is acceptable.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new OptimisticLockingFailureException("Malformed If-Match header: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("Malformed If-Match header: " + ifMatch);
+        }
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long mix(long hash, Long value) {
+        return (hash ^ (value == null ? -1 : value)) * 0x100000001b3L;
+    }
+}
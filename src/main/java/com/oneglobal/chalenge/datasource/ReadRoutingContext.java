@@ -0,0 +1,44 @@
+package com.oneglobal.chalenge.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that keeps read-only transactions on the primary, e.g. while a client is inside its
+ * read-your-writes window.
+ */
+public final class ReadRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+    }
+
+    public static void usePrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    /**
+     * Runs {@code action} with its reads on the primary and then restores the previous routing. For reads
+     * whose result outlives the request, such as cache fills and index rebuilds, which must not capture a
+     * replica that has not caught up yet.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean primaryOnly = isPrimaryOnly();
+        usePrimary();
+        try {
+            return action.get();
+        } finally {
+            if (!primaryOnly) {
+                clear();
+            }
+        }
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+}
@@ -0,0 +1,27 @@
+package com.oneglobal.chalenge.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas for {@code readOnly} transactions, bound from {@code device.datasource}. With no replicas
+ * configured every query goes to the primary {@code spring.datasource}.
+ *
+ * @param replicas            connection settings of each replica
+ * @param stickyWindow        how long a client's reads stay on the primary after it sent a write, so it reads
+ *                            its own writes despite replication lag; zero disables stickiness
+ * @param healthCheckInterval how often unhealthy replicas are probed to bring them back into rotation
+ */
+@ConfigurationProperties("device.datasource")
+public record ReplicaProperties(
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("PT5S") Duration stickyWindow,
+        @DefaultValue("PT10S") Duration healthCheckInterval
+) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
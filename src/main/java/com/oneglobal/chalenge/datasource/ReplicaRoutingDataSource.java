@@ -0,0 +1,128 @@
+package com.oneglobal.chalenge.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read side of the read/write split: hands out connections round-robin from the healthy replicas and
+ * falls back to the primary when none is healthy or the caller must read its own writes. A replica leaves the
+ * rotation only when connecting to it fails or its connection fails validation; a replica whose pool is
+ * merely busy is skipped for that one read. It is used as the
+ * read-only target of a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * only asks for a connection once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadRoutingContext.isPrimaryOnly()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    if (isConnectionFailure(e)) {
+                        markDown(replica, e);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials are configured per replica");
+    }
+
+    /**
+     * Probes every replica and updates its health; a replica that failed a connection attempt rejoins the
+     * rotation here once it answers again. A probe that cannot get a connection for another reason, such as
+     * an exhausted pool, leaves the replica's health as it was.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markDown(replica, new SQLException("Connection validation failed"));
+                    continue;
+                }
+                if (!replica.healthy) {
+                    log.info("Replica {} is healthy again", replicas.indexOf(replica));
+                }
+                replica.healthy = true;
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    markDown(replica, e);
+                }
+            }
+        }
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Closes the replica pools; the primary is owned by its own bean.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Whether the replica itself could not be reached: SQLState class 08 (connection exception). A Hikari pool
+     * timeout only means the replica's pool is busy; it carries no SQLState unless the pool's own last attempt
+     * to connect failed, in which case it carries that failure's state.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            log.warn("Replica {} is unhealthy, reads fall back to the other replicas or the primary: {}",
+                    replicas.indexOf(replica), cause.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.oneglobal.chalenge.entity;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A device moved out of the live table by the retention job. It keeps its original id, so the
+ * archive can be searched by the ids clients already hold. Rows are only ever inserted by a bulk
+ * INSERT ... SELECT, so the entity has no constructors or setters for application code.
+ */
+@Entity
+@Table(name = "device_archive", indexes = {
+        @Index(name = "idx_device_archive_archived_at", columnList = "archivedAt")
+})
+public class ArchivedDevice {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private String brand;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DeviceState state;
+
+    @Column(nullable = false)
+    private LocalDateTime creationTime;
+
+    private LocalDateTime stateChangedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(nullable = false)
+    private Long version;
+
+    protected ArchivedDevice() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public DeviceState getState() {
+        return state;
+    }
+
+    public LocalDateTime getCreationTime() {
+        return creationTime;
+    }
+
+    public LocalDateTime getStateChangedAt() {
+        return stateChangedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
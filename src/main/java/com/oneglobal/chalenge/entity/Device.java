@@ -7,11 +7,17 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table
+@Table(indexes = {
+        @Index(name = "idx_device_brand", columnList = "brand"),
+        @Index(name = "idx_device_state", columnList = "state"),
+        @Index(name = "idx_device_state_brand", columnList = "state, brand"),
+        @Index(name = "idx_device_creation_time", columnList = "creationTime")
+})
 public class Device {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_seq")
+    @SequenceGenerator(name = "device_seq", sequenceName = "device_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,6 +34,17 @@ public class Device {
     @Column(nullable = false, updatable = false)
     private LocalDateTime creationTime;
 
+    /**
+     * When the state last changed; {@code null} on rows written before the column existed, which
+     * count from {@link #creationTime} instead.
+     */
+    @CreationTimestamp
+    private LocalDateTime stateChangedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Device() {
     }
 
@@ -78,4 +95,20 @@ public class Device {
     public void setCreationTime(LocalDateTime creationTime) {
         this.creationTime = creationTime;
     }
+
+    public LocalDateTime getStateChangedAt() {
+        return stateChangedAt;
+    }
+
+    public void setStateChangedAt(LocalDateTime stateChangedAt) {
+        this.stateChangedAt = stateChangedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
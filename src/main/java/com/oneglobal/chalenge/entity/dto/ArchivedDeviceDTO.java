@@ -0,0 +1,15 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+import java.time.LocalDateTime;
+
+public record ArchivedDeviceDTO(
+        Long id,
+        String name,
+        String brand,
+        DeviceState state,
+        LocalDateTime creationTime,
+        LocalDateTime stateChangedAt,
+        LocalDateTime archivedAt
+) {}
@@ -0,0 +1,6 @@
+package com.oneglobal.chalenge.entity.dto;
+
+public record DeviceBatchErrorDTO(
+        int index,
+        String message
+) {}
@@ -0,0 +1,8 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import java.util.List;
+
+public record DeviceBatchResponseDTO(
+        List<Long> ids,
+        List<DeviceBatchErrorDTO> errors
+) {}
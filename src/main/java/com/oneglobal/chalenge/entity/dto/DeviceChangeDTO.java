@@ -0,0 +1,16 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One change-feed event. {@code type} is {@code created}, {@code updated} or {@code deleted} for a single
+ * device ({@code device} is absent for deletions), or {@code transitioned} for a bulk state transition, which
+ * carries the {@code transition} filter instead of individual devices.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeviceChangeDTO(
+        String type,
+        Long id,
+        DeviceResponseDTO device,
+        DeviceStateTransitionRequestDTO transition
+) {}
@@ -0,0 +1,9 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+public record DeviceCount(
+        String brand,
+        DeviceState state,
+        long total
+) {}
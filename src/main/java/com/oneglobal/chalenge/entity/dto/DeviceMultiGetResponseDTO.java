@@ -0,0 +1,8 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import java.util.List;
+
+public record DeviceMultiGetResponseDTO(
+        List<DeviceResponseDTO> devices,
+        List<Long> missing
+) {}
@@ -0,0 +1,7 @@
+package com.oneglobal.chalenge.entity.dto;
+
+public record DeviceName(
+        Long id,
+        String name,
+        String brand
+) {}
@@ -0,0 +1,13 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record DeviceSearchCriteria(
+        String brand,
+        DeviceState state,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo
+) {}
@@ -0,0 +1,14 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+import java.time.Instant;
+
+/**
+ * A state observed by a device at {@code timestamp}; the server's receipt time is used when it is absent.
+ */
+public record DeviceStateReportDTO(
+        Long id,
+        DeviceState state,
+        Instant timestamp
+) {}
@@ -0,0 +1,9 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import java.util.List;
+
+public record DeviceStateReportResponseDTO(
+        int accepted,
+        List<DeviceBatchErrorDTO> errors,
+        boolean bufferFull
+) {}
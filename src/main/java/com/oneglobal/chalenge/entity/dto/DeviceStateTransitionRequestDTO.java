@@ -0,0 +1,17 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+import java.util.List;
+
+/**
+ * Moves the devices matching every given filter to {@code targetState}. IN_USE devices are skipped unless
+ * {@code includeInUse} is true, which releases or retires held devices the way a single update or patch can.
+ */
+public record DeviceStateTransitionRequestDTO(
+        List<Long> ids,
+        String brand,
+        DeviceState currentState,
+        DeviceState targetState,
+        Boolean includeInUse
+) {}
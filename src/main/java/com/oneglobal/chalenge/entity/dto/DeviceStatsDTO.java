@@ -0,0 +1,14 @@
+package com.oneglobal.chalenge.entity.dto;
+
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record DeviceStatsDTO(
+        long total,
+        Map<DeviceState, Long> byState,
+        Map<String, Long> byBrand,
+        Map<String, Map<DeviceState, Long>> byBrandAndState,
+        Instant reconciledAt
+) {}
@@ -0,0 +1,100 @@
+package com.oneglobal.chalenge.idempotency;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Remembers the results of writes sent with an {@code Idempotency-Key}, so a client retrying a timed-out
+ * request gets the original result instead of a second write. The first request with a key runs the
+ * write, and concurrent duplicates wait for its result. A write that fails is forgotten, so it can be
+ * retried. Results are kept for {@code device.idempotency.ttl} in memory only, bounded by
+ * {@code device.idempotency.max-weight}, where a result weighs one unit per device it holds.
+ */
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final AsyncCache<String, Stored> results;
+    private final Counter replayed;
+
+    public IdempotencyStore(@Value("${device.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${device.idempotency.max-weight:1000000}") long maxWeight,
+                            MeterRegistry registry) {
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxWeight)
+                .weigher((String key, Stored stored) -> stored.weight())
+                .buildAsync();
+        this.replayed = Counter.builder("device.idempotency.replayed")
+                .description("Requests answered with the stored result of an earlier request with the same key")
+                .register(registry);
+        Gauge.builder("device.idempotency.keys", results, cache -> cache.synchronous().estimatedSize())
+                .description("Idempotency keys currently remembered")
+                .register(registry);
+    }
+
+    /**
+     * Runs {@code write} unless {@code key} was already used in {@code scope}, in which case the earlier
+     * result is returned, after waiting for it if that request is still running.
+     *
+     * @param request the request body; reusing a key with a different body is rejected
+     * @param weight  the result's share of {@code max-weight}, e.g. the number of devices it holds
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Supplier<T> write, ToIntFunction<T> weight) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> earlier = results.asMap().putIfAbsent(scope + ' ' + key, mine);
+        if (earlier == null) {
+            try {
+                T value = write.get();
+                mine.complete(new Stored(request, value, Math.max(1, weight.applyAsInt(value))));
+                return new Result<>(value, false);
+            } catch (RuntimeException | Error e) {
+                // A failed future is dropped by the cache, so the client can retry with the same key
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        Stored stored;
+        try {
+            stored = earlier.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!stored.request().equals(request)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        replayed.increment();
+        @SuppressWarnings("unchecked")
+        T value = (T) stored.value();
+        return new Result<>(value, true);
+    }
+
+    /**
+     * @param replayed whether the value comes from an earlier request rather than this one
+     */
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    private record Stored(Object request, Object value, int weight) {
+    }
+}
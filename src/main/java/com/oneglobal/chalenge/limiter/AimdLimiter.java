@@ -0,0 +1,115 @@
+package com.oneglobal.chalenge.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to observed latency, using additive increase and multiplicative decrease.
+ * While requests finish under the latency threshold and the limit is actually in use, it grows by about one
+ * per limit's worth of requests. A slow or failed request shrinks it by {@code backoffRatio}, at most once
+ * per threshold interval, so one burst of slow responses that were all in flight together counts as one
+ * signal rather than many.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long thresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private long lastDecrease;
+
+    public AimdLimiter(LimiterProperties.Budget budget, double backoffRatio) {
+        this(budget, backoffRatio, System::nanoTime);
+    }
+
+    AimdLimiter(LimiterProperties.Budget budget, double backoffRatio, LongSupplier nanoClock) {
+        if (budget.minLimit() < 1 || budget.minLimit() > budget.maxLimit()) {
+            throw new IllegalArgumentException("Limiter budget needs 1 <= min-limit <= max-limit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("device.limiter.backoff-ratio must be in (0, 1)");
+        }
+        this.minLimit = budget.minLimit();
+        this.maxLimit = budget.maxLimit();
+        this.thresholdNanos = budget.latencyThreshold().toNanos();
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = Math.clamp(budget.initialLimit(), minLimit, maxLimit);
+        this.lastDecrease = nanoClock.getAsLong() - thresholdNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit taken by {@link #tryAcquire()} and adapts the limit to the request's outcome.
+     *
+     * @return whether the limit was decreased
+     */
+    public boolean release(long latencyNanos, boolean failed) {
+        int stillInFlight = inFlight.decrementAndGet();
+        if (failed || latencyNanos > thresholdNanos) {
+            return backOff();
+        }
+        lock.lock();
+        try {
+            // Growing a limit that is not being used would only let a later surge through unchecked
+            if ((stillInFlight + 1) * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Releases a permit taken by {@link #tryAcquire()} without adapting the limit, for requests whose latency
+     * says nothing about this budget's load.
+     */
+    public void releaseUnmeasured() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Shrinks the limit unless it was already shrunk within the last threshold interval.
+     *
+     * @return whether the limit was decreased
+     */
+    public boolean backOff() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            if (now - lastDecrease < thresholdNanos) {
+                return false;
+            }
+            lastDecrease = now;
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,114 @@
+package com.oneglobal.chalenge.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sheds load in front of the device endpoints before it reaches the connection pool. Reads, writes and
+ * bulk writes each get an {@link AimdLimiter}, and a request that finds its budget full is answered at once
+ * with 503 and {@code Retry-After}, instead of queueing until it times out. When the write budget backs off,
+ * the read budget backs off with it. Polling reads therefore give way to writes rather than competing with
+ * them for connections. Bulk writes take seconds by design, so their budget has its own threshold and backs
+ * off alone. An idempotent replay only waited for, or copied, the original request's result, so its latency
+ * is not counted. The long-lived change feed and NDJSON export are not limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD");
+    private static final Set<String> UNLIMITED_PATHS = Set.of("/devices/changes", "/devices/export");
+    private static final Set<String> BULK_PATHS =
+            Set.of("/devices/batch", "/devices/state-reports", "/devices/state-transitions");
+    // Set by DeviceController on responses answered from the idempotency store
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private final AimdLimiter reads;
+    private final AimdLimiter writes;
+    private final AimdLimiter bulk;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+    private final Counter bulkRejected;
+
+    public ConcurrencyLimitFilter(AimdLimiter reads, AimdLimiter writes, AimdLimiter bulk, MeterRegistry registry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.bulk = bulk;
+        this.readsRejected = register(registry, "read", reads);
+        this.writesRejected = register(registry, "write", writes);
+        this.bulkRejected = register(registry, "bulk", bulk);
+    }
+
+    private static Counter register(MeterRegistry registry, String budget, AimdLimiter limiter) {
+        Gauge.builder("device.limiter.limit", limiter, AimdLimiter::limit)
+                .description("Concurrent requests currently allowed")
+                .tag("budget", budget)
+                .register(registry);
+        Gauge.builder("device.limiter.inflight", limiter, AimdLimiter::inFlight)
+                .description("Requests currently holding a permit")
+                .tag("budget", budget)
+                .register(registry);
+        return Counter.builder("device.limiter.rejected")
+                .description("Requests answered with 503 because the budget was full")
+                .tag("budget", budget)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !(path.equals("/devices") || path.startsWith("/devices/")) || UNLIMITED_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AimdLimiter limiter;
+        Counter rejected;
+        if (READ_METHODS.contains(request.getMethod())) {
+            limiter = reads;
+            rejected = readsRejected;
+        } else if (BULK_PATHS.contains(path(request))) {
+            limiter = bulk;
+            rejected = bulkRejected;
+        } else {
+            limiter = writes;
+            rejected = writesRejected;
+        }
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            // A bare status: sendError would dispatch to the error controller and spend on each rejection
+            // about the CPU that shedding is meant to save
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (!failed && response.containsHeader(IDEMPOTENT_REPLAYED)) {
+                limiter.releaseUnmeasured();
+            } else if (limiter.release(System.nanoTime() - started, failed) && limiter == writes) {
+                reads.backOff();
+            }
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,37 @@
+package com.oneglobal.chalenge.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limits in front of the device endpoints, bound from {@code device.limiter}.
+ *
+ * @param backoffRatio factor applied to a limit when a request is slow or fails
+ * @param read         budget for GET and HEAD requests
+ * @param write        budget for every other method; when it backs off, reads back off too
+ * @param bulk         budget for the bulk writes, which are slow by design and so back off on their own
+ */
+@ConfigurationProperties("device.limiter")
+public record LimiterProperties(
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue Budget read,
+        @DefaultValue Budget write,
+        @DefaultValue Budget bulk
+) {
+
+    /**
+     * @param initialLimit     concurrent requests allowed at startup
+     * @param minLimit         floor the limit never shrinks below
+     * @param maxLimit         ceiling the limit never grows above
+     * @param latencyThreshold requests slower than this count as a sign of overload
+     */
+    public record Budget(
+            @DefaultValue("32") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("256") int maxLimit,
+            @DefaultValue("PT0.25S") Duration latencyThreshold
+    ) {
+    }
+}
@@ -5,6 +5,7 @@ import com.oneglobal.chalenge.entity.Device;
 import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -14,11 +15,19 @@ import java.util.List;
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 public interface DeviceMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "creationTime", ignore = true)
+    @Mapping(target = "stateChangedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Device toEntity(DeviceRequestDTO dto);
 
     DeviceResponseDTO toResponseDTO(Device entity);
 
     List<DeviceResponseDTO> toResponseDTOList(List<Device> entities);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "creationTime", ignore = true)
+    @Mapping(target = "stateChangedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(DeviceRequestDTO dto, @MappingTarget Device entity);
 }
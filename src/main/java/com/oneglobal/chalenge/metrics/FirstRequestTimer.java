@@ -0,0 +1,59 @@
+package com.oneglobal.chalenge.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long after JVM start the first request was answered, as {@code application.first.request.time}
+ * next to Spring Boot's {@code application.ready.time}. Unlike the latter it includes JVM startup and the
+ * class loading and JIT work of the first request, which is what CDS, AOT and native images shorten.
+ */
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    static final String METRIC_NAME = "application.first.request.time";
+
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public FirstRequestTimer(MeterRegistry registry) {
+        TimeGauge.builder(METRIC_NAME, firstRequestMillis, TimeUnit.MILLISECONDS,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from JVM start until the first request was answered")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (firstRequestMillis.get() < 0) {
+                long millis = uptimeMillis();
+                if (firstRequestMillis.compareAndSet(-1, millis)) {
+                    log.info("First request ({} {}) answered {} ms after JVM start",
+                            request.getMethod(), request.getRequestURI(), millis);
+                }
+            }
+        }
+    }
+
+    long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,33 @@
+package com.oneglobal.chalenge.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursors so clients never depend on the
+ * underlying key format.
+ */
+public final class CursorCodec {
+
+    public static final long FIRST_KEY = 0L;
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Long key) {
+        byte[] raw = Long.toString(key).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_KEY;
+        }
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(cursor);
+            return Long.parseLong(new String(raw, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
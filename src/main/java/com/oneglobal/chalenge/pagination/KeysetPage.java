@@ -0,0 +1,26 @@
+package com.oneglobal.chalenge.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record KeysetPage<T>(
+        List<T> items,
+        Long nextKey
+) {
+
+    /**
+     * Builds a page from a result fetched with {@code limit + 1} rows: the extra row only
+     * signals that another page exists and is never returned to the caller.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, Long> keyExtractor) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, keyExtractor.apply(items.get(limit - 1)));
+    }
+
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.oneglobal.chalenge.repository;
+
+import com.oneglobal.chalenge.entity.ArchivedDevice;
+import com.oneglobal.chalenge.entity.dto.ArchivedDeviceDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedDeviceRepository extends JpaRepository<ArchivedDevice, Long> {
+
+    String SELECT_DTO = "select new com.oneglobal.chalenge.entity.dto.ArchivedDeviceDTO(" +
+            "a.id, a.name, a.brand, a.state, a.creationTime, a.stateChangedAt, a.archivedAt) from ArchivedDevice a ";
+
+    @Query(SELECT_DTO + "where a.id = :id")
+    Optional<ArchivedDeviceDTO> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "where a.id > :afterId and (:brand is null or a.brand = :brand) order by a.id")
+    List<ArchivedDeviceDTO> findDtosAfter(@Param("brand") String brand, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Copies the devices into the archive with one INSERT ... SELECT, without loading them.
+     */
+    @Modifying
+    @Query("insert into ArchivedDevice (id, name, brand, state, creationTime, stateChangedAt, archivedAt, version) " +
+            "select d.id, d.name, d.brand, d.state, d.creationTime, d.stateChangedAt, :archivedAt, d.version " +
+            "from Device d where d.id in :ids")
+    int copyFromDevices(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
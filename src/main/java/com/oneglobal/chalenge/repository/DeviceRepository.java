@@ -1,12 +1,154 @@
 package com.oneglobal.chalenge.repository;
 
 import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceCount;
+import com.oneglobal.chalenge.entity.dto.DeviceName;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
 import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface DeviceRepository extends JpaRepository<Device, Long> {
-    List<Device> findByState(DeviceState state);
-    List<Device> findByBrand(String brand);
+public interface DeviceRepository extends JpaRepository<Device, Long>, JpaSpecificationExecutor<Device>,
+        DeviceRepositoryCustom {
+
+    /**
+     * Read path that builds the response records straight from the result set: no managed
+     * entities, no dirty-checking snapshots and no auto-flush before the query.
+     */
+    String SELECT_RESPONSE = "select new com.oneglobal.chalenge.entity.dto.DeviceResponseDTO(" +
+            "d.id, d.name, d.brand, d.state, d.creationTime, d.version) from Device d ";
+
+    /**
+     * Set clause that stamps {@code stateChangedAt} with {@code :changedAt} when {@code :state} differs from the
+     * current state. The time comes from the application's UTC clock rather than the database's, whose time zone
+     * may differ. It must come before {@code d.state} is assigned: MySQL evaluates assignments left to right.
+     */
+    String TOUCH_STATE_CHANGED_AT = "d.stateChangedAt = case when coalesce(:state, d.state) <> d.state " +
+            "then :changedAt else d.stateChangedAt end, ";
+
+    /**
+     * Lock timeout that Hibernate renders as {@code SKIP LOCKED} ({@code LockOptions.SKIP_LOCKED}).
+     */
+    String SKIP_LOCKED = "-2";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_RESPONSE + "where d.id = :id")
+    Optional<DeviceResponseDTO> findResponseById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_RESPONSE + "where d.id > :afterId order by d.id")
+    List<DeviceResponseDTO> findResponsesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_RESPONSE + "where d.state = :state and d.id > :afterId order by d.id")
+    List<DeviceResponseDTO> findResponsesByStateAfter(@Param("state") DeviceState state,
+                                                      @Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_RESPONSE + "where d.brand = :brand and d.id > :afterId order by d.id")
+    List<DeviceResponseDTO> findResponsesByBrandAfter(@Param("brand") String brand,
+                                                      @Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_RESPONSE + "where d.id in :ids")
+    List<DeviceResponseDTO> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.oneglobal.chalenge.entity.dto.DeviceName(d.id, d.name, d.brand) from Device d")
+    Stream<DeviceName> streamNames();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from Device d " +
+            "where (:state is null or d.state = :state) and (:brand is null or d.brand = :brand) " +
+            "order by d.id")
+    Stream<Device> streamAll(@Param("state") DeviceState state, @Param("brand") String brand);
+
+    @Query("select new com.oneglobal.chalenge.entity.dto.DeviceSnapshot(d.brand, d.state, d.version) " +
+            "from Device d where d.id = :id")
+    Optional<DeviceSnapshot> findSnapshotById(@Param("id") Long id);
+
+    @Query("select new com.oneglobal.chalenge.entity.dto.DeviceCount(d.brand, d.state, count(d)) " +
+            "from Device d group by d.brand, d.state")
+    List<DeviceCount> countByBrandAndState();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Device d set " + TOUCH_STATE_CHANGED_AT + "d.name = coalesce(:name, d.name), " +
+            "d.brand = coalesce(:brand, d.brand), d.state = coalesce(:state, d.state), d.version = d.version + 1 " +
+            "where d.id = :id and (:version is null or d.version = :version) " +
+            "and (d.state <> com.oneglobal.chalenge.entity.enumerator.DeviceState.IN_USE " +
+            "or (d.name = :name and d.brand = :brand))")
+    int replaceIfAllowed(@Param("id") Long id, @Param("name") String name, @Param("brand") String brand,
+                         @Param("state") DeviceState state, @Param("version") Long version,
+                         @Param("changedAt") LocalDateTime changedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Device d set " + TOUCH_STATE_CHANGED_AT + "d.name = coalesce(:name, d.name), " +
+            "d.brand = coalesce(:brand, d.brand), d.state = coalesce(:state, d.state), d.version = d.version + 1 " +
+            "where d.id = :id and (:version is null or d.version = :version) " +
+            "and (d.state <> com.oneglobal.chalenge.entity.enumerator.DeviceState.IN_USE " +
+            "or ((:name is null or d.name = :name) and (:brand is null or d.brand = :brand)))")
+    int patchIfAllowed(@Param("id") Long id, @Param("name") String name, @Param("brand") String brand,
+                       @Param("state") DeviceState state, @Param("version") Long version,
+                       @Param("changedAt") LocalDateTime changedAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from Device d where d.id in :ids order by d.id")
+    List<Device> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks up to {@code limit} AVAILABLE devices, lowest id first, skipping rows another transaction has
+     * locked, so concurrent callers each get different devices instead of queueing on the same rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    @Query("select d from Device d " +
+            "where d.state = com.oneglobal.chalenge.entity.enumerator.DeviceState.AVAILABLE " +
+            "and (:brand is null or d.brand = :brand) order by d.id")
+    List<Device> findAvailableForUpdateSkipLocked(@Param("brand") String brand, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Device d set " + TOUCH_STATE_CHANGED_AT + "d.state = :state, d.version = d.version + 1 " +
+            "where d.id in :ids")
+    int updateStates(@Param("ids") Collection<Long> ids, @Param("state") DeviceState state,
+                     @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * INACTIVE devices whose state last changed before the cutoff, in id order from {@code afterId}.
+     * Rows without {@code stateChangedAt} count from their creation time.
+     */
+    @Query("select d.id from Device d " +
+            "where d.state = com.oneglobal.chalenge.entity.enumerator.DeviceState.INACTIVE and d.id > :afterId " +
+            "and coalesce(d.stateChangedAt, d.creationTime) < :cutoff order by d.id")
+    List<Long> findInactiveIdsBefore(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId,
+                                     Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Device d where d.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Device d " +
+            "where d.id = :id and (:version is null or d.version = :version) " +
+            "and d.state <> com.oneglobal.chalenge.entity.enumerator.DeviceState.IN_USE")
+    int deleteIfNotInUse(@Param("id") Long id, @Param("version") Long version);
 }
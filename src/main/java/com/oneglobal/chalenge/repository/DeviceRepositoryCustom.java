@@ -0,0 +1,11 @@
+package com.oneglobal.chalenge.repository;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+public interface DeviceRepositoryCustom {
+    int updateState(Specification<Device> specification, DeviceState state, LocalDateTime changedAt);
+}
@@ -0,0 +1,35 @@
+package com.oneglobal.chalenge.repository;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+public class DeviceRepositoryCustomImpl implements DeviceRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public DeviceRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int updateState(Specification<Device> specification, DeviceState state, LocalDateTime changedAt) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Device> update = cb.createCriteriaUpdate(Device.class);
+        Root<Device> root = update.from(Device.class);
+        // Before the state assignment: MySQL evaluates assignments left to right
+        update.set(root.<LocalDateTime>get("stateChangedAt"), cb.<LocalDateTime>selectCase()
+                .when(cb.notEqual(root.get("state"), state), changedAt)
+                .otherwise(root.get("stateChangedAt")));
+        update.set(root.<DeviceState>get("state"), state);
+        update.set(root.<Long>get("version"), cb.sum(root.get("version"), 1L));
+        update.where(specification.toPredicate(root, null, cb));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
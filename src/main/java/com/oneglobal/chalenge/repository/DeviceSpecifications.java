@@ -0,0 +1,63 @@
+package com.oneglobal.chalenge.repository;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceSearchCriteria;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public final class DeviceSpecifications {
+
+    private DeviceSpecifications() {
+    }
+
+    /**
+     * Combines every criterion that is set; unset criteria do not restrict the result.
+     */
+    public static Specification<Device> matching(DeviceSearchCriteria criteria) {
+        Specification<Device> specification = Specification.where(null);
+        if (criteria.brand() != null) {
+            specification = specification.and(hasBrand(criteria.brand()));
+        }
+        if (criteria.state() != null) {
+            specification = specification.and(hasState(criteria.state()));
+        }
+        if (criteria.createdFrom() != null) {
+            specification = specification.and(createdAtOrAfter(criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            specification = specification.and(createdBefore(criteria.createdTo()));
+        }
+        return specification;
+    }
+
+    public static Specification<Device> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Device> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Device> hasBrand(String brand) {
+        return (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Device> hasState(DeviceState state) {
+        return (root, query, cb) -> cb.equal(root.get("state"), state);
+    }
+
+    public static Specification<Device> createdAtOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("creationTime"), from);
+    }
+
+    public static Specification<Device> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("creationTime"), to);
+    }
+
+    public static Specification<Device> notInState(DeviceState state) {
+        return (root, query, cb) -> cb.notEqual(root.get("state"), state);
+    }
+}
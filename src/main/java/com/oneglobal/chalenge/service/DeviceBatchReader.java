@@ -0,0 +1,88 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.config.CacheConfig;
+import com.oneglobal.chalenge.entity.dto.DeviceMultiGetResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves many devices by id at once. Ids found in the device near cache are served from it, and the
+ * rest are loaded with one {@code IN (...)} query per {@value #CHUNK_SIZE} ids. Rows read here are not
+ * put into the cache, so a read racing a delete cannot bring the deleted device back.
+ */
+@Service
+@Observed(name = "device.service")
+public class DeviceBatchReader {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final DeviceRepository repository;
+    private final Cache cache;
+    private final int maxIds;
+
+    public DeviceBatchReader(DeviceRepository repository, CacheManager cacheManager,
+                             @Value("${device.multi-get.max-ids:500}") int maxIds) {
+        if (maxIds < 1) {
+            throw new IllegalArgumentException("device.multi-get.max-ids must be positive");
+        }
+        this.repository = repository;
+        this.cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Returns the devices in the order their ids were requested, with repeated ids returned once, and
+     * lists the ids that do not exist.
+     */
+    @Transactional(readOnly = true)
+    public DeviceMultiGetResponseDTO findAllById(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be requested at once");
+        }
+
+        Map<Long, DeviceResponseDTO> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : requested) {
+            DeviceResponseDTO cached = cache == null ? null : cache.get(id, DeviceResponseDTO.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        for (int from = 0; from < uncached.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = uncached.subList(from, Math.min(uncached.size(), from + CHUNK_SIZE));
+            repository.findResponsesByIdIn(chunk).forEach(device -> found.put(device.id(), device));
+        }
+
+        List<DeviceResponseDTO> devices = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            DeviceResponseDTO device = found.get(id);
+            if (device != null) {
+                devices.add(device);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new DeviceMultiGetResponseDTO(devices, missing);
+    }
+}
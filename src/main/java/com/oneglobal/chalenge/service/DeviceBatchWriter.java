@@ -0,0 +1,31 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.entity.Device;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persists one chunk of devices per transaction so Hibernate can send them as a single JDBC
+ * batch, and a failing chunk never rolls back chunks that were already written.
+ */
+@Component
+public class DeviceBatchWriter {
+
+    private final EntityManager entityManager;
+
+    public DeviceBatchWriter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Device> insert(List<Device> devices) {
+        devices.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        return devices;
+    }
+}
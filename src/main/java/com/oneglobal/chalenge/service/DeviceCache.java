@@ -0,0 +1,93 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.config.CacheConfig;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The device near cache behind {@code GET /devices/{id}}. A miss is loaded outside the cache's map lock:
+ * {@code @Cacheable(sync = true)} ran the query inside {@code ConcurrentHashMap.compute}, whose
+ * {@code synchronized} bin pins a virtual thread to its carrier for the whole JDBC call. Concurrent misses
+ * for the same id therefore each run the query.
+ *
+ * <p>Without the lock, a load can read a device just before a write commits and finish after the write
+ * refreshed or evicted it. Every committed write counts itself before touching the cache, and a load only
+ * stores its result if no write was counted since it started, checked atomically with the insert.
+ */
+@Component
+public class DeviceCache {
+
+    private final Cache cache;
+    private final ConcurrentMap<Object, Object> entries;
+    private final AtomicLong writes = new AtomicLong();
+
+    public DeviceCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        this.entries = entries(cache);
+    }
+
+    /**
+     * Returns the cached device, or loads it and caches the result, including its absence.
+     */
+    public Optional<DeviceResponseDTO> get(Long id, Supplier<Optional<DeviceResponseDTO>> loader) {
+        Cache.ValueWrapper cached = cache.get(id);
+        if (cached != null) {
+            return Optional.ofNullable((DeviceResponseDTO) cached.get());
+        }
+        long seen = writes.get();
+        Optional<DeviceResponseDTO> loaded = loader.get();
+        if (entries != null) {
+            Object value = loaded.isPresent() ? loaded.get() : NullValue.INSTANCE;
+            entries.compute(id, (key, current) -> current != null || writes.get() != seen ? current : value);
+        }
+        return loaded;
+    }
+
+    /**
+     * Refreshes a cached device with a committed write. A device that is not cached stays uncached, and a
+     * cached newer version is kept, since after-commit callbacks of two writes can run in either order.
+     */
+    public void refresh(DeviceResponseDTO device) {
+        writes.incrementAndGet();
+        if (entries != null) {
+            entries.computeIfPresent(device.id(), (id, cached) -> newer(cached, device));
+        }
+    }
+
+    public void evict(Long id) {
+        writes.incrementAndGet();
+        cache.evict(id);
+    }
+
+    public void clear() {
+        writes.incrementAndGet();
+        cache.clear();
+    }
+
+    private static Object newer(Object cached, DeviceResponseDTO written) {
+        return cached instanceof DeviceResponseDTO device && device.version() > written.version() ? cached : written;
+    }
+
+    /**
+     * The map behind the cache, or {@code null} when caching is turned off ({@code DEVICE_CACHE_TYPE=none}).
+     */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> entries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        if (nativeCache instanceof ConcurrentMap<?, ?> map) {
+            return (ConcurrentMap<Object, Object>) map;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.event.DeviceStateTransitionedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the device near cache in step with writes once they commit. {@link DeviceCache} makes sure a
+ * load that read the device before the commit cannot store its result afterwards.
+ *
+ * <p>After-commit callbacks of two writes to the same device can run in either order, so a write
+ * only refreshes an entry that is already cached, and only with a version at least as new. An
+ * older write arriving late can then neither overwrite a newer one nor bring back a device whose
+ * deletion already evicted it.
+ */
+@Component
+public class DeviceCacheInvalidator {
+
+    private final DeviceCache cache;
+
+    public DeviceCacheInvalidator(DeviceCache cache) {
+        this.cache = cache;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event.device() == null) {
+            cache.evict(event.id());
+        } else {
+            cache.refresh(event.device());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateTransitioned(DeviceStateTransitionedEvent event) {
+        if (event.updated() == 0) {
+            return;
+        }
+        if (event.filter().ids() != null && !event.filter().ids().isEmpty()) {
+            event.filter().ids().forEach(cache::evict);
+        } else {
+            cache.clear();
+        }
+    }
+}
@@ -1,89 +1,383 @@
 package com.oneglobal.chalenge.service;
 
+import com.oneglobal.chalenge.datasource.ReadRoutingContext;
 import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchErrorDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchResponseDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSearchCriteria;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionResponseDTO;
 import com.oneglobal.chalenge.entity.enumerator.DeviceState;
 import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.pagination.KeysetPage;
 import com.oneglobal.chalenge.repository.DeviceRepository;
-import jakarta.transaction.Transactional;
+import com.oneglobal.chalenge.repository.DeviceSpecifications;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.event.DeviceStateTransitionedEvent;
+import com.oneglobal.chalenge.service.search.DeviceNameIndex;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "device.service")
 public class DeviceService {
 
+    static final int MAX_BATCH_SIZE = 10_000;
+    static final int BATCH_CHUNK_SIZE = 500;
+    static final int TRANSITION_CHUNK_SIZE = 1_000;
+    static final int MAX_WRITE_ATTEMPTS = 3;
+    static final String BATCH_ITEM_REJECTED = "Device was rejected by the database";
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceService.class);
+
     private final DeviceRepository repository;
     private final DeviceMapper mapper;
+    private final EntityManager entityManager;
+    private final DeviceBatchWriter batchWriter;
+    private final ApplicationEventPublisher events;
+    private final DeviceNameIndex nameIndex;
+    private final DeviceCache cache;
+    private final Clock clock;
 
-    public DeviceService(DeviceRepository repository, DeviceMapper mapper) {
+    public DeviceService(DeviceRepository repository, DeviceMapper mapper, EntityManager entityManager,
+                         DeviceBatchWriter batchWriter, ApplicationEventPublisher events,
+                         DeviceNameIndex nameIndex, DeviceCache cache, Clock clock) {
         this.repository = repository;
         this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.batchWriter = batchWriter;
+        this.events = events;
+        this.nameIndex = nameIndex;
+        this.cache = cache;
+        this.clock = clock;
     }
 
     public Device create(DeviceRequestDTO dto) {
-        Device device = mapper.toEntity(dto);
-        return repository.save(device);
+        Device device = repository.save(mapper.toEntity(dto));
+        publishChange(DeviceChangeType.CREATED, null, device);
+        return device;
     }
 
-    public List<Device> findAll() {
-        return repository.findAll();
+    /**
+     * Inserts the devices in chunks of {@link #BATCH_CHUNK_SIZE}, one transaction per chunk.
+     * Invalid items are reported without being sent to the database, and a chunk rejected by
+     * the database is retried item by item so only the offending devices are reported.
+     */
+    public DeviceBatchResponseDTO createAll(List<DeviceRequestDTO> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch cannot contain more than " + MAX_BATCH_SIZE + " devices");
+        }
+
+        Long[] ids = new Long[dtos.size()];
+        List<DeviceBatchErrorDTO> errors = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+
+        for (int index = 0; index < dtos.size(); index++) {
+            String violation = validate(dtos.get(index));
+            if (violation != null) {
+                errors.add(new DeviceBatchErrorDTO(index, violation));
+                continue;
+            }
+            chunk.add(index);
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                insertChunk(dtos, chunk, ids, errors);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(dtos, chunk, ids, errors);
+        }
+
+        errors.sort(Comparator.comparingInt(DeviceBatchErrorDTO::index));
+        return new DeviceBatchResponseDTO(Arrays.asList(ids), errors);
     }
 
-    public Optional<Device> findById(Long id) {
-        return repository.findById(id);
+    private void insertChunk(List<DeviceRequestDTO> dtos, List<Integer> chunk, Long[] ids,
+                             List<DeviceBatchErrorDTO> errors) {
+        try {
+            List<Device> created = batchWriter.insert(chunk.stream().map(i -> mapper.toEntity(dtos.get(i))).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[chunk.get(i)] = created.get(i).getId();
+                publishChange(DeviceChangeType.CREATED, null, created.get(i));
+            }
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                // The driver's message can quote SQL and schema details, so it stays in the log
+                log.warn("Batch item {} was rejected: {}", chunk.get(0), e.getMostSpecificCause().getMessage());
+                errors.add(new DeviceBatchErrorDTO(chunk.get(0), BATCH_ITEM_REJECTED));
+                return;
+            }
+            for (Integer index : chunk) {
+                insertChunk(dtos, List.of(index), ids, errors);
+            }
+        }
     }
 
-    public List<Device> findByBrand(String brand) {
-        return repository.findByBrand(brand);
+    private static String validate(DeviceRequestDTO dto) {
+        if (dto == null) {
+            return "Device must not be null";
+        }
+        if (dto.name() == null || dto.name().isBlank()) {
+            return "Name is required";
+        }
+        if (dto.brand() == null || dto.brand().isBlank()) {
+            return "Brand is required";
+        }
+        if (dto.state() == null) {
+            return "State is required";
+        }
+        return null;
     }
 
-    public List<Device> findByState(DeviceState state) {
-        return repository.findByState(state);
+    @Transactional(readOnly = true)
+    public KeysetPage<DeviceResponseDTO> findAll(long afterId, int limit) {
+        List<DeviceResponseDTO> rows = repository.findResponsesAfter(afterId, Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, DeviceResponseDTO::id);
     }
 
-    @Transactional
-    public Device update(Long id, DeviceRequestDTO dto) {
-        Device deviceExistente = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Device not found"));
-
-        if (deviceExistente.getState() == DeviceState.IN_USE) {
-            if (!deviceExistente.getName().equals(dto.name()) ||
-                    !deviceExistente.getBrand().equals(dto.brand())) {
-                throw new IllegalStateException("Cannot update name or brand when device is IN_USE");
-            }
+    @Transactional(readOnly = true)
+    public KeysetPage<Device> search(DeviceSearchCriteria criteria, long afterId, int limit) {
+        Specification<Device> specification = DeviceSpecifications.matching(criteria)
+                .and(DeviceSpecifications.idGreaterThan(afterId));
+        List<Device> rows = repository.findBy(specification,
+                query -> query.sortBy(Sort.by("id")).limit(limit + 1).all());
+        return KeysetPage.of(rows, limit, Device::getId);
+    }
+
+    /**
+     * Served from the {@link DeviceCache}. Misses are loaded from the primary: a lagging replica would put
+     * a stale or deleted device in the cache for its whole TTL.
+     */
+    public Optional<DeviceResponseDTO> findById(Long id) {
+        return cache.get(id, () -> ReadRoutingContext.onPrimary(() -> repository.findResponseById(id)));
+    }
+
+    /**
+     * Ranks devices by name and brand similarity using the in-memory {@link DeviceNameIndex}, then
+     * loads the hits by primary key. Hits deleted since they were indexed are dropped.
+     */
+    @Transactional(readOnly = true)
+    public List<DeviceResponseDTO> searchByName(String query, int limit) {
+        List<Long> ids = nameIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
         }
+        Map<Long, DeviceResponseDTO> found = new HashMap<>();
+        for (DeviceResponseDTO device : repository.findResponsesByIdIn(ids)) {
+            found.put(device.id(), device);
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<DeviceResponseDTO> findByBrand(String brand, long afterId, int limit) {
+        List<DeviceResponseDTO> rows = repository.findResponsesByBrandAfter(brand, afterId, Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, DeviceResponseDTO::id);
+    }
 
-        mapper.updateEntityFromDto(dto, deviceExistente);
-        return repository.save(deviceExistente);
+    @Transactional(readOnly = true)
+    public KeysetPage<DeviceResponseDTO> findByState(DeviceState state, long afterId, int limit) {
+        List<DeviceResponseDTO> rows = repository.findResponsesByStateAfter(state, afterId, Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, DeviceResponseDTO::id);
+    }
+
+    /**
+     * Streams every matching device to the sink in id order. Each entity is detached once it
+     * has been mapped, so the persistence context never grows with the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void export(DeviceState state, String brand, Consumer<DeviceResponseDTO> sink) {
+        try (Stream<Device> devices = repository.streamAll(state, brand)) {
+            devices.forEach(device -> {
+                sink.accept(mapper.toResponseDTO(device));
+                entityManager.detach(device);
+            });
+        }
     }
 
+    /**
+     * Moves every device matching the filter to the target state with set-based UPDATEs; no
+     * entity is loaded. Devices that are IN_USE are held by someone, so by default a bulk transition
+     * does not move them and reports them as skipped instead. With {@code includeInUse} it moves them
+     * too: only name, brand and deletion are locked while a device is in use, not its state.
+     */
     @Transactional
-    public Device patch(Long id, DeviceRequestDTO dto) {
-        Device device = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Device not found"));
+    public DeviceStateTransitionResponseDTO transitionState(DeviceStateTransitionRequestDTO request) {
+        if (request.targetState() == null) {
+            throw new IllegalArgumentException("Target state is required");
+        }
+        boolean hasIds = request.ids() != null && !request.ids().isEmpty();
+        if (!hasIds && request.brand() == null && request.currentState() == null) {
+            throw new IllegalArgumentException("At least one filter (ids, brand or current state) is required");
+        }
+
+        Specification<Device> filter = Specification.where(null);
+        if (request.brand() != null) {
+            filter = filter.and(DeviceSpecifications.hasBrand(request.brand()));
+        }
+        if (request.currentState() != null) {
+            filter = filter.and(DeviceSpecifications.hasState(request.currentState()));
+        }
+
+        boolean includeInUse = Boolean.TRUE.equals(request.includeInUse());
+
+        if (!hasIds) {
+            DeviceStateTransitionResponseDTO result = transitionState(filter, request.targetState(), includeInUse);
+            events.publishEvent(new DeviceStateTransitionedEvent(request, result.updated()));
+            return result;
+        }
 
-        boolean isTryingToChangeRestrictedFields =
-                (dto.name() != null && !dto.name().equals(device.getName())) ||
-                        (dto.brand() != null && !dto.brand().equals(device.getBrand()));
+        List<Long> ids = request.ids().stream().distinct().toList();
+        long updated = 0;
+        long skipped = 0;
+        for (int from = 0; from < ids.size(); from += TRANSITION_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + TRANSITION_CHUNK_SIZE, ids.size()));
+            DeviceStateTransitionResponseDTO result =
+                    transitionState(filter.and(DeviceSpecifications.idIn(chunk)), request.targetState(), includeInUse);
+            updated += result.updated();
+            skipped += result.skippedInUse();
+        }
+        events.publishEvent(new DeviceStateTransitionedEvent(request, updated));
+        return new DeviceStateTransitionResponseDTO(updated, skipped);
+    }
 
-        if (device.getState() == DeviceState.IN_USE && isTryingToChangeRestrictedFields) {
-            throw new IllegalStateException("Cannot update name or brand when device is IN_USE");
+    private DeviceStateTransitionResponseDTO transitionState(
+            Specification<Device> filter, DeviceState target, boolean includeInUse) {
+        if (includeInUse) {
+            int updated = repository.updateState(
+                    filter.and(DeviceSpecifications.notInState(target)), target, LocalDateTime.now(clock));
+            return new DeviceStateTransitionResponseDTO(updated, 0);
         }
+        long skipped = target == DeviceState.IN_USE
+                ? 0
+                : repository.count(filter.and(DeviceSpecifications.hasState(DeviceState.IN_USE)));
+        int updated = repository.updateState(filter
+                .and(DeviceSpecifications.notInState(DeviceState.IN_USE))
+                .and(DeviceSpecifications.notInState(target)), target, LocalDateTime.now(clock));
+        return new DeviceStateTransitionResponseDTO(updated, skipped);
+    }
 
-        mapper.updateEntityFromDto(dto, device);
-        return repository.save(device);
+    @Transactional
+    public Device update(Long id, DeviceRequestDTO dto, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return writeGuarded(id, dto, expectedVersion, now,
+                version -> repository.replaceIfAllowed(id, dto.name(), dto.brand(), dto.state(), version, now));
     }
 
-    public void delete(Long id) {
-        Device device = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Device not found"));
+    @Transactional
+    public Device patch(Long id, DeviceRequestDTO dto, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return writeGuarded(id, dto, expectedVersion, now,
+                version -> repository.patchIfAllowed(id, dto.name(), dto.brand(), dto.state(), version, now));
+    }
 
-        if (device.getState() == DeviceState.IN_USE) {
-            throw new IllegalStateException("Cannot delete a device that is IN_USE");
+    /**
+     * The DELETE enforces the IN_USE rule and the optional expected version, and its row count says
+     * whether the device existed, so nothing is read first. The change event therefore carries no
+     * previous brand and state.
+     */
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        if (repository.deleteIfNotInUse(id, expectedVersion) == 0) {
+            throw rejectedWrite(id, expectedVersion, "Cannot delete a device that is IN_USE");
         }
+        events.publishEvent(new DeviceChangedEvent(DeviceChangeType.DELETED, id, null, null));
+    }
 
-        repository.deleteById(id);
+    /**
+     * Reads the device, then runs the guarded UPDATE pinned to the version read, which enforces the
+     * IN_USE rule. A successful write therefore replaced exactly the row read: it is the previous state
+     * for the change event and, with the changes applied in memory, the result, so the write takes two
+     * statements and no lock. If another write got in between and the caller sent no expected version,
+     * the write starts over from a fresh read, as the unpinned UPDATE would have overwritten it anyway.
+     * {@code now} is the {@code stateChangedAt} the UPDATE stamps on a state change.
+     */
+    private Device writeGuarded(Long id, DeviceRequestDTO dto, Long expectedVersion, LocalDateTime now,
+                                LongToIntFunction update) {
+        for (int attempt = 1; ; attempt++) {
+            Device device = repository.findById(id).orElseThrow(() -> new RuntimeException("Device not found"));
+            // Detached, so the changes applied below never flush a second UPDATE
+            entityManager.detach(device);
+            if (expectedVersion != null && !expectedVersion.equals(device.getVersion())) {
+                throw new OptimisticLockingFailureException("Device " + id + " is at version " + device.getVersion());
+            }
+            DeviceSnapshot previous = new DeviceSnapshot(device.getBrand(), device.getState(), device.getVersion());
+            if (update.applyAsInt(device.getVersion()) == 1) {
+                applyWritten(device, dto, now);
+                publishChange(DeviceChangeType.UPDATED, previous, device);
+                return device;
+            }
+            RuntimeException rejected =
+                    rejectedWrite(id, device.getVersion(), "Cannot update name or brand when device is IN_USE");
+            if (expectedVersion != null || attempt == MAX_WRITE_ATTEMPTS
+                    || !(rejected instanceof OptimisticLockingFailureException)) {
+                throw rejected;
+            }
+        }
+    }
+
+    /**
+     * Mirrors the guarded UPDATE on the device it replaced: null fields are kept, and a state change
+     * stamps {@code stateChangedAt} with the time the UPDATE recorded.
+     */
+    private static void applyWritten(Device device, DeviceRequestDTO dto, LocalDateTime now) {
+        if (dto.name() != null) {
+            device.setName(dto.name());
+        }
+        if (dto.brand() != null) {
+            device.setBrand(dto.brand());
+        }
+        if (dto.state() != null && dto.state() != device.getState()) {
+            device.setState(dto.state());
+            device.setStateChangedAt(now);
+        }
+        device.setVersion(device.getVersion() + 1);
+    }
+
+    private void publishChange(DeviceChangeType type, DeviceSnapshot previous, Device device) {
+        events.publishEvent(new DeviceChangedEvent(type, device.getId(), previous, mapper.toResponseDTO(device)));
+    }
+
+    /**
+     * Explains why a guarded write matched no row: the device was deleted or modified
+     * concurrently, or it is IN_USE. Only runs on the failure path.
+     */
+    private RuntimeException rejectedWrite(Long id, Long expectedVersion, String conflictMessage) {
+        Optional<DeviceSnapshot> snapshot = repository.findSnapshotById(id);
+        if (snapshot.isEmpty()) {
+            return new RuntimeException("Device not found");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(snapshot.get().version())) {
+            return new OptimisticLockingFailureException("Device " + id + " is at version " + snapshot.get().version());
+        }
+        return new IllegalStateException(conflictMessage);
     }
-}
\ No newline at end of file
+}
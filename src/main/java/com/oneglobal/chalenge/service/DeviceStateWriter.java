@@ -0,0 +1,77 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies one chunk of coalesced state reports per transaction: the rows are locked in id order with a
+ * single SELECT ... FOR UPDATE, and only the devices whose state actually changes are written, with one
+ * set-based UPDATE per target state and report time. Unknown (deleted) ids are skipped, and so are reports
+ * older than the device's last state change: a report delayed past a later flush or a user's write must
+ * not roll the device back. Applied reports record their own timestamp as {@code stateChangedAt}, in UTC
+ * like every stored time (see {@link com.oneglobal.chalenge.config.ClockConfig}).
+ */
+@Component
+public class DeviceStateWriter {
+
+    private final DeviceRepository repository;
+    private final DeviceMapper mapper;
+    private final ApplicationEventPublisher events;
+
+    public DeviceStateWriter(DeviceRepository repository, DeviceMapper mapper, ApplicationEventPublisher events) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.events = events;
+    }
+
+    /**
+     * @return the number of devices whose state changed
+     */
+    @Transactional
+    public int apply(Map<Long, DeviceStateReportDTO> reports) {
+        Map<StateChange, List<Long>> idsByChange = new HashMap<>();
+        List<DeviceChangedEvent> changes = new ArrayList<>();
+        for (Device device : repository.findAllForUpdate(reports.keySet())) {
+            DeviceStateReportDTO report = reports.get(device.getId());
+            DeviceState target = report.state();
+            LocalDateTime observedAt = LocalDateTime.ofInstant(report.timestamp(), ZoneOffset.UTC);
+            if (target == device.getState()
+                    || (device.getStateChangedAt() != null && !observedAt.isAfter(device.getStateChangedAt()))) {
+                continue;
+            }
+            idsByChange.computeIfAbsent(new StateChange(target, observedAt), change -> new ArrayList<>())
+                    .add(device.getId());
+            DeviceResponseDTO before = mapper.toResponseDTO(device);
+            DeviceResponseDTO after = new DeviceResponseDTO(before.id(), before.name(), before.brand(), target,
+                    before.creationTime(), before.version() + 1);
+            changes.add(new DeviceChangedEvent(DeviceChangeType.UPDATED, device.getId(),
+                    new DeviceSnapshot(device.getBrand(), device.getState(), device.getVersion()), after));
+        }
+        idsByChange.forEach((change, ids) -> repository.updateStates(ids, change.state(), change.at()));
+        changes.forEach(events::publishEvent);
+        return changes.size();
+    }
+
+    /**
+     * Reports sent together are stamped with the same receipt time, so most chunks need a few UPDATEs.
+     */
+    private record StateChange(DeviceState state, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.entity.dto.DeviceCount;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStatsDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.event.DeviceStateTransitionedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inventory counts kept in memory and adjusted by every committed write, so reading them never
+ * touches the database. A periodic GROUP BY replaces the counters to correct drift, e.g. from
+ * set-based writes whose individual rows are unknown or deltas that raced with a reconciliation.
+ * Deletions do not say which brand and state they removed, so they request an early recount
+ * instead, batched every {@code device.stats.recount-delay}.
+ */
+@Service
+public class DeviceStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceStatsService.class);
+
+    private final DeviceRepository repository;
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private final AtomicBoolean recountRequested = new AtomicBoolean();
+    private volatile Map<BrandState, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile Instant reconciledAt;
+
+    public DeviceStatsService(DeviceRepository repository) {
+        this.repository = repository;
+    }
+
+    public DeviceStatsDTO getStats() {
+        long total = 0;
+        Map<DeviceState, Long> byState = new EnumMap<>(DeviceState.class);
+        Map<String, Long> byBrand = new TreeMap<>();
+        Map<String, Map<DeviceState, Long>> byBrandAndState = new TreeMap<>();
+
+        for (Map.Entry<BrandState, LongAdder> entry : counters.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count <= 0) {
+                continue;
+            }
+            BrandState key = entry.getKey();
+            total += count;
+            byState.merge(key.state(), count, Long::sum);
+            byBrand.merge(key.brand(), count, Long::sum);
+            byBrandAndState.computeIfAbsent(key.brand(), brand -> new EnumMap<>(DeviceState.class))
+                    .merge(key.state(), count, Long::sum);
+        }
+        return new DeviceStatsDTO(total, byState, byBrand, byBrandAndState, reconciledAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceSnapshot previous = event.previous();
+        if (previous != null) {
+            counter(new BrandState(previous.brand(), previous.state())).decrement();
+        }
+        DeviceResponseDTO device = event.device();
+        if (device != null) {
+            counter(new BrandState(device.brand(), device.state())).increment();
+        }
+        if (previous == null && device == null) {
+            recountRequested.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${device.stats.recount-delay:PT5S}")
+    public void recountIfRequested() {
+        if (recountRequested.getAndSet(false)) {
+            reconcile();
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateTransitioned(DeviceStateTransitionedEvent event) {
+        if (event.updated() > 0) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Guarded by a {@link ReentrantLock} rather than {@code synchronized}: the query blocks on
+     * JDBC I/O, and a virtual thread blocking inside a monitor would pin its carrier thread.
+     */
+    @Scheduled(fixedDelayString = "${device.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            Map<BrandState, LongAdder> fresh = new ConcurrentHashMap<>();
+            for (DeviceCount count : repository.countByBrandAndState()) {
+                LongAdder adder = new LongAdder();
+                adder.add(count.total());
+                fresh.put(new BrandState(count.brand(), count.state()), adder);
+            }
+            counters = fresh;
+            reconciledAt = Instant.now();
+            log.debug("Device statistics reconciled: {} brand/state groups", fresh.size());
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private LongAdder counter(BrandState key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private record BrandState(String brand, DeviceState state) {
+    }
+}
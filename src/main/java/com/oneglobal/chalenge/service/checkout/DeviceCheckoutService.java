@@ -0,0 +1,96 @@
+package com.oneglobal.chalenge.service.checkout;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Claims AVAILABLE devices for a caller and hands them back. A checkout locks its devices with
+ * SELECT ... FOR UPDATE SKIP LOCKED, so concurrent callers skip past each other's rows instead of
+ * waiting on them or claiming the same device. Each call is one transaction: one locking SELECT and
+ * one set-based UPDATE.
+ */
+@Service
+public class DeviceCheckoutService {
+
+    public static final int MAX_DEVICES = 500;
+
+    private final DeviceRepository repository;
+    private final DeviceMapper mapper;
+    private final ApplicationEventPublisher events;
+    private final Clock clock;
+
+    public DeviceCheckoutService(DeviceRepository repository, DeviceMapper mapper, ApplicationEventPublisher events,
+                                 Clock clock) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.events = events;
+        this.clock = clock;
+    }
+
+    /**
+     * Moves up to {@code count} AVAILABLE devices, optionally of one brand, to IN_USE.
+     *
+     * @return the claimed devices; fewer than {@code count}, possibly none, when not enough are free
+     */
+    @Transactional
+    public List<DeviceResponseDTO> checkout(String brand, int count) {
+        if (count < 1 || count > MAX_DEVICES) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_DEVICES);
+        }
+        return moveTo(DeviceState.IN_USE, repository.findAvailableForUpdateSkipLocked(brand, Limit.of(count)));
+    }
+
+    /**
+     * Moves the given devices from IN_USE back to AVAILABLE. Unknown ids and devices that are not
+     * IN_USE are left alone.
+     *
+     * @return the released devices
+     */
+    @Transactional
+    public List<DeviceResponseDTO> release(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_DEVICES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_DEVICES + " ids are required");
+        }
+        List<Device> inUse = repository.findAllForUpdate(ids).stream()
+                .filter(device -> device.getState() == DeviceState.IN_USE)
+                .toList();
+        return moveTo(DeviceState.AVAILABLE, inUse);
+    }
+
+    private List<DeviceResponseDTO> moveTo(DeviceState target, List<Device> locked) {
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(locked.size());
+        List<DeviceResponseDTO> moved = new ArrayList<>(locked.size());
+        List<DeviceChangedEvent> changes = new ArrayList<>(locked.size());
+        for (Device device : locked) {
+            DeviceResponseDTO before = mapper.toResponseDTO(device);
+            DeviceResponseDTO after = new DeviceResponseDTO(before.id(), before.name(), before.brand(), target,
+                    before.creationTime(), before.version() + 1);
+            ids.add(device.getId());
+            moved.add(after);
+            changes.add(new DeviceChangedEvent(DeviceChangeType.UPDATED, device.getId(),
+                    new DeviceSnapshot(device.getBrand(), device.getState(), device.getVersion()), after));
+        }
+        repository.updateStates(ids, target, LocalDateTime.now(clock));
+        changes.forEach(events::publishEvent);
+        return moved;
+    }
+}
@@ -0,0 +1,8 @@
+package com.oneglobal.chalenge.service.event;
+
+public enum DeviceChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    ARCHIVED
+}
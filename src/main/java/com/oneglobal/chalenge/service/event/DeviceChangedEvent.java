@@ -0,0 +1,16 @@
+package com.oneglobal.chalenge.service.event;
+
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+
+/**
+ * Published by {@code DeviceService} for every single-device write. {@code previous} is the
+ * brand and state before the write ({@code null} for creations, and for deletions, which do not
+ * read the row) and {@code device} the state after it ({@code null} for deletions and archiving).
+ */
+public record DeviceChangedEvent(
+        DeviceChangeType type,
+        Long id,
+        DeviceSnapshot previous,
+        DeviceResponseDTO device
+) {}
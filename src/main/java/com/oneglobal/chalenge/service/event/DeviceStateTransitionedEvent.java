@@ -0,0 +1,12 @@
+package com.oneglobal.chalenge.service.event;
+
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+
+/**
+ * Published after a set-based state transition. The affected ids are not known individually,
+ * only the filter that selected them.
+ */
+public record DeviceStateTransitionedEvent(
+        DeviceStateTransitionRequestDTO filter,
+        long updated
+) {}
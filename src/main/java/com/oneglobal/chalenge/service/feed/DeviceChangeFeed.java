@@ -0,0 +1,298 @@
+package com.oneglobal.chalenge.service.feed;
+
+import com.oneglobal.chalenge.entity.dto.DeviceChangeDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.event.DeviceStateTransitionedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed device changes out to Server-Sent Event subscribers.
+ * <p>
+ * Every change gets a sequence number and is kept in a ring buffer, so a client reconnecting with
+ * {@code Last-Event-ID} receives what it missed. A client that is too far behind (or whose id is from before
+ * a restart) gets a {@code reset} event and should re-read {@code GET /devices}. Each subscriber has a
+ * bounded queue drained by a short-lived virtual thread only while events are pending: an idle subscriber
+ * holds no thread and no buffer. A subscriber whose queue overflows is sent {@code reset} and disconnected
+ * instead of slowing down the writers or growing memory.
+ */
+@Service
+public class DeviceChangeFeed {
+
+    static final String RESET = "reset";
+
+    private final Entry[] ring;
+    private final int subscriberBuffer;
+    private final long timeoutMillis;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService drains = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter overflows;
+    private long sequence;
+
+    public DeviceChangeFeed(@Value("${device.feed.buffer-size:10000}") int bufferSize,
+                            @Value("${device.feed.subscriber-buffer:10000}") int subscriberBuffer,
+                            @Value("${device.feed.timeout:PT30M}") Duration timeout,
+                            MeterRegistry registry) {
+        this.ring = new Entry[bufferSize];
+        this.subscriberBuffer = subscriberBuffer;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("device.feed.subscribers", subscribers, Set::size)
+                .description("Open change-feed connections")
+                .register(registry);
+        this.overflows = Counter.builder("device.feed.overflows")
+                .description("Subscribers disconnected because they could not keep up")
+                .register(registry);
+    }
+
+    /**
+     * Opens a subscription to changes matching the optional brand and state, resuming after
+     * {@code lastEventId} when the buffer still holds it.
+     */
+    public SseEmitter subscribe(String brand, DeviceState state, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, brand, state);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                List<Entry> missed = missedSince(lastEventId, subscriber);
+                if (missed == null || missed.size() > subscriberBuffer) {
+                    subscriber.offer(new Reset(sequence, false));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        String type = event.type().name().toLowerCase(Locale.ROOT);
+        publish(new DeviceChangeDTO(type, event.id(), event.device(), null), event.previous());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateTransitioned(DeviceStateTransitionedEvent event) {
+        if (event.updated() > 0) {
+            publish(new DeviceChangeDTO("transitioned", null, null, event.filter()), null);
+        }
+    }
+
+    /**
+     * Sends a comment to idle subscribers so proxies keep the connection open and dead clients are noticed.
+     */
+    @Scheduled(fixedDelayString = "${device.feed.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queued.get() == 0) {
+                subscriber.offer(Heartbeat.INSTANCE);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        drains.shutdownNow();
+    }
+
+    private void publish(DeviceChangeDTO change, DeviceSnapshot previous) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(++sequence, change, previous);
+            ring[(int) (entry.sequence % ring.length)] = entry;
+            for (Subscriber subscriber : subscribers) {
+                if (entry.matches(subscriber.brand, subscriber.state)) {
+                    subscriber.offer(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The buffered entries after {@code lastEventId} that match the subscriber, or {@code null} when they
+     * are no longer (or were never) all in the buffer.
+     */
+    private List<Entry> missedSince(String lastEventId, Subscriber subscriber) {
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldest = Math.max(1, sequence - ring.length + 1);
+        if (last > sequence || last + 1 < oldest) {
+            return null;
+        }
+        List<Entry> missed = new ArrayList<>();
+        for (long i = last + 1; i <= sequence; i++) {
+            Entry entry = ring[(int) (i % ring.length)];
+            if (entry.matches(subscriber.brand, subscriber.state)) {
+                missed.add(entry);
+            }
+        }
+        return missed;
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private record Entry(long sequence, DeviceChangeDTO change, DeviceSnapshot previous) {
+
+        /**
+         * A change matches when the device matched the filter before or after it, so subscribers also hear
+         * about devices leaving their view. A deletion does not know what the device looked like, so every
+         * subscriber hears about it.
+         */
+        boolean matches(String brand, DeviceState state) {
+            if (change.transition() != null) {
+                DeviceStateTransitionRequestDTO transition = change.transition();
+                return (brand == null || transition.brand() == null || brand.equals(transition.brand()))
+                        && (state == null || transition.currentState() == null
+                        || state == transition.currentState() || state == transition.targetState());
+            }
+            if (change.device() == null && previous == null) {
+                return true;
+            }
+            boolean now = change.device() != null
+                    && matches(brand, state, change.device().brand(), change.device().state());
+            return now || previous != null && matches(brand, state, previous.brand(), previous.state());
+        }
+
+        private static boolean matches(String brand, DeviceState state, String deviceBrand, DeviceState deviceState) {
+            return (brand == null || brand.equals(deviceBrand)) && (state == null || state == deviceState);
+        }
+    }
+
+    private record Reset(long sequence, boolean disconnect) {
+    }
+
+    private enum Heartbeat {
+        INSTANCE
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String brand;
+        private final DeviceState state;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, String brand, DeviceState state) {
+            this.emitter = emitter;
+            this.brand = brand;
+            this.state = state;
+        }
+
+        /**
+         * Called with the feed lock held for changes, so entries are queued in sequence order.
+         */
+        private void offer(Object item) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > subscriberBuffer) {
+                closed = true;
+                subscribers.remove(this);
+                overflows.increment();
+                queue.clear();
+                queue.add(new Reset(sequence, true));
+            } else {
+                queue.add(item);
+            }
+            if (draining.compareAndSet(false, true)) {
+                drains.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Object item;
+                while ((item = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    if (!send(item)) {
+                        close();
+                        queue.clear();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(Object item) {
+            try {
+                if (item instanceof Entry entry) {
+                    emitter.send(SseEmitter.event()
+                            .id(eventId(entry.sequence))
+                            .name(entry.change.type())
+                            .data(entry.change, MediaType.APPLICATION_JSON));
+                } else if (item instanceof Reset reset) {
+                    emitter.send(SseEmitter.event().id(eventId(reset.sequence)).name(RESET).data(RESET));
+                    if (reset.disconnect) {
+                        emitter.complete();
+                    }
+                } else {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.oneglobal.chalenge.service.ingest;
+
+import com.oneglobal.chalenge.entity.dto.DeviceBatchErrorDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportResponseDTO;
+import com.oneglobal.chalenge.service.DeviceStateWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind for high-frequency state reports. Reports are coalesced in memory so only the newest state
+ * per device survives, and the survivors are written in chunks on an interval or once enough devices are
+ * pending, instead of one SELECT and UPDATE per report.
+ * <p>
+ * The {@link Durability} decides what an acknowledged report survives: {@code BEST_EFFORT} keeps it in
+ * memory only (a crash loses at most one flush window, which the next heartbeat repairs), {@code JOURNAL}
+ * fsyncs it to a local journal replayed on startup, and {@code SYNC} writes each request through before
+ * answering, coalescing only within the request.
+ * <p>
+ * A report's {@code timestamp} comes from the device's clock, so it is bounded against the receipt time: a
+ * timestamp in the future is replaced by the receipt time, since a state change dated ahead would make every
+ * report until then look stale, and one older than {@code device.ingest.max-report-age} is rejected.
+ */
+@Service
+public class DeviceStateIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceStateIngestor.class);
+
+    static final int MAX_REPORTS_PER_REQUEST = 10_000;
+    static final int FLUSH_CHUNK_SIZE = 1_000;
+
+    public enum Durability {
+        BEST_EFFORT,
+        JOURNAL,
+        SYNC
+    }
+
+    private final DeviceStateWriter writer;
+    private final Durability durability;
+    private final int maxPending;
+    private final int flushSize;
+    private final Duration maxReportAge;
+    private final Clock clock;
+    private final StateReportJournal journal;
+    private final ReentrantReadWriteLock bufferLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("device-state-flush").daemon().factory());
+    private final LongAdder acceptedSinceFlush = new LongAdder();
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter updates;
+    private final Counter failures;
+    private final Timer flushTimer;
+    private final DistributionSummary coalescingRatio;
+    private volatile ConcurrentHashMap<Long, DeviceStateReportDTO> pending = new ConcurrentHashMap<>();
+
+    public DeviceStateIngestor(DeviceStateWriter writer,
+                               @Value("${device.ingest.durability:BEST_EFFORT}") Durability durability,
+                               @Value("${device.ingest.max-pending:100000}") int maxPending,
+                               @Value("${device.ingest.flush-size:5000}") int flushSize,
+                               @Value("${device.ingest.journal-dir:data/journal}") Path journalDir,
+                               @Value("${device.ingest.max-report-age:P1D}") Duration maxReportAge,
+                               Clock clock, MeterRegistry registry) {
+        this.writer = writer;
+        this.durability = durability;
+        this.maxPending = maxPending;
+        this.flushSize = flushSize;
+        this.maxReportAge = maxReportAge;
+        this.clock = clock;
+        this.journal = durability == Durability.JOURNAL ? new StateReportJournal(journalDir) : null;
+
+        Gauge.builder("device.ingest.pending", this, ingestor -> ingestor.pending.size())
+                .description("Devices with a state report waiting to be flushed")
+                .register(registry);
+        this.accepted = Counter.builder("device.ingest.reports").tag("result", "accepted").register(registry);
+        this.rejected = Counter.builder("device.ingest.reports").tag("result", "rejected").register(registry);
+        this.updates = Counter.builder("device.ingest.updates")
+                .description("Devices whose state was changed by a flush")
+                .register(registry);
+        this.failures = Counter.builder("device.ingest.flush.failures").register(registry);
+        this.flushTimer = Timer.builder("device.ingest.flush")
+                .description("Time to write one flush window to the database")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.coalescingRatio = DistributionSummary.builder("device.ingest.coalescing.ratio")
+                .description("Accepted reports per device written, for each flush")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void recover() {
+        if (journal == null) {
+            return;
+        }
+        StateReportJournal.Recovered recovered = journal.recover();
+        recovered.reports().forEach(report -> pending.merge(report.id(), report, DeviceStateIngestor::newest));
+        journal.append(pending.values());
+        journal.delete(recovered.segments());
+        if (!recovered.reports().isEmpty()) {
+            log.info("Recovered {} journaled state reports for {} devices", recovered.reports().size(), pending.size());
+        }
+    }
+
+    public DeviceStateReportResponseDTO ingest(List<DeviceStateReportDTO> reports) {
+        if (reports.size() > MAX_REPORTS_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_REPORTS_PER_REQUEST + " reports can be sent at once");
+        }
+        Instant now = Instant.now(clock);
+        Instant oldest = now.minus(maxReportAge);
+        List<DeviceBatchErrorDTO> errors = new ArrayList<>();
+        BitSet invalid = new BitSet(reports.size());
+        Map<Long, DeviceStateReportDTO> valid = new LinkedHashMap<>();
+        for (int i = 0; i < reports.size(); i++) {
+            DeviceStateReportDTO report = reports.get(i);
+            String error = null;
+            if (report == null || report.id() == null) {
+                error = "Id is required";
+            } else if (report.state() == null) {
+                error = "State is required";
+            } else if (report.timestamp() != null && report.timestamp().isBefore(oldest)) {
+                error = "Timestamp is older than " + maxReportAge;
+            }
+            if (error != null) {
+                errors.add(new DeviceBatchErrorDTO(i, error));
+                invalid.set(i);
+                continue;
+            }
+            DeviceStateReportDTO stamped = report.timestamp() != null && !report.timestamp().isAfter(now) ? report
+                    : new DeviceStateReportDTO(report.id(), report.state(), now);
+            valid.merge(stamped.id(), stamped, DeviceStateIngestor::newest);
+        }
+
+        if (durability == Durability.SYNC) {
+            write(valid, reports.size() - errors.size());
+            accepted.increment(reports.size() - errors.size());
+            rejected.increment(errors.size());
+            return new DeviceStateReportResponseDTO(reports.size() - errors.size(), errors, false);
+        }
+
+        boolean bufferFull = false;
+        List<DeviceStateReportDTO> buffered = new ArrayList<>(valid.size());
+        bufferLock.readLock().lock();
+        try {
+            for (int i = 0; i < reports.size(); i++) {
+                if (invalid.get(i)) {
+                    continue;
+                }
+                DeviceStateReportDTO report = reports.get(i);
+                if (pending.size() >= maxPending && !pending.containsKey(report.id())) {
+                    errors.add(new DeviceBatchErrorDTO(i, "Ingestion buffer is full"));
+                    bufferFull = true;
+                    continue;
+                }
+                DeviceStateReportDTO stamped = valid.get(report.id());
+                pending.merge(stamped.id(), stamped, DeviceStateIngestor::newest);
+                buffered.add(stamped);
+            }
+            if (journal != null) {
+                journal.append(buffered);
+            }
+            acceptedSinceFlush.add(buffered.size());
+        } finally {
+            bufferLock.readLock().unlock();
+        }
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        accepted.increment(buffered.size());
+        rejected.increment(errors.size());
+
+        if (bufferFull || pending.size() >= flushSize) {
+            requestFlush();
+        }
+        return new DeviceStateReportResponseDTO(buffered.size(), errors, bufferFull);
+    }
+
+    /**
+     * Writes everything pending. Reports accepted while a flush runs go to the next window; a window that
+     * fails is merged back, keeping any newer report for the same device, and retried by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${device.ingest.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, DeviceStateReportDTO> batch;
+            Path segment = null;
+            long acceptedReports;
+            bufferLock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ConcurrentHashMap<>();
+                acceptedReports = acceptedSinceFlush.sumThenReset();
+                if (journal != null) {
+                    segment = journal.rotate();
+                }
+            } finally {
+                bufferLock.writeLock().unlock();
+            }
+
+            try {
+                write(batch, acceptedReports);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Flushing {} device states failed; they will be retried", batch.size(), e);
+                requeue(batch);
+            }
+            if (segment != null) {
+                journal.delete(List.of(segment));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void write(Map<Long, DeviceStateReportDTO> batch, long acceptedReports) {
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        ids.sort(null);
+        int changed = flushTimer.record(() -> {
+            int total = 0;
+            for (int from = 0; from < ids.size(); from += FLUSH_CHUNK_SIZE) {
+                Map<Long, DeviceStateReportDTO> chunk = new HashMap<>();
+                for (Long id : ids.subList(from, Math.min(ids.size(), from + FLUSH_CHUNK_SIZE))) {
+                    chunk.put(id, batch.get(id));
+                }
+                total += writer.apply(chunk);
+            }
+            return total;
+        });
+        updates.increment(changed);
+        if (!batch.isEmpty()) {
+            coalescingRatio.record((double) acceptedReports / batch.size());
+        }
+    }
+
+    private void requeue(Map<Long, DeviceStateReportDTO> batch) {
+        bufferLock.readLock().lock();
+        try {
+            batch.values().forEach(report -> pending.merge(report.id(), report, DeviceStateIngestor::newest));
+            acceptedSinceFlush.add(batch.size());
+            if (journal != null) {
+                journal.append(batch.values());
+            }
+        } finally {
+            bufferLock.readLock().unlock();
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    private static DeviceStateReportDTO newest(DeviceStateReportDTO current, DeviceStateReportDTO candidate) {
+        return candidate.timestamp().isBefore(current.timestamp()) ? current : candidate;
+    }
+}
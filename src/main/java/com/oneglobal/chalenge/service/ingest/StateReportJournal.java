@@ -0,0 +1,244 @@
+package com.oneglobal.chalenge.service.ingest;
+
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of accepted state reports, written and fsync'd before a request is acknowledged. Each
+ * flush window has its own segment; a segment is deleted once its reports are in the database, so after a
+ * crash the surviving segments hold exactly the reports that may not have been applied.
+ * <p>
+ * Appends are group-committed: writers only hold the write lock to copy their lines into the file, then
+ * wait for an fsync that covers them. While one fsync runs, the appends that arrive queue up behind it and
+ * the next fsync covers them all. Both are {@link ReentrantLock}s, so waiting virtual threads release their
+ * carriers.
+ */
+class StateReportJournal implements AutoCloseable {
+
+    private static final String PREFIX = "state-reports-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    /** Guards the channel, the segment and the append count. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** Held while forcing, and while rotating so a segment is never closed mid-fsync. */
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private long segment;
+    private Path active;
+    private FileChannel channel;
+    private long appended;
+    private long synced;
+
+    StateReportJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads every segment left by a previous run and opens a fresh one; the caller re-appends what it keeps
+     * and then calls {@link #delete} on the returned segments.
+     */
+    Recovered recover() {
+        writeLock.lock();
+        try {
+            List<Path> segments = segments();
+            List<DeviceStateReportDTO> reports = new ArrayList<>();
+            for (Path path : segments) {
+                segment = Math.max(segment, number(path));
+                try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+                    lines.map(StateReportJournal::parse).filter(report -> report != null).forEach(reports::add);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            open();
+            return new Recovered(reports, segments);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns once the reports are on disk.
+     */
+    void append(Collection<DeviceStateReportDTO> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder(reports.size() * 32);
+        for (DeviceStateReportDTO report : reports) {
+            lines.append(report.id()).append(',').append(report.state().name()).append(',')
+                    .append(report.timestamp().toEpochMilli()).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        long ticket;
+        writeLock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            ticket = ++appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+        sync(ticket);
+    }
+
+    /**
+     * Starts a new segment for reports accepted from now on and returns the one being flushed.
+     */
+    Path rotate() {
+        syncLock.lock();
+        writeLock.lock();
+        try {
+            Path flushing = active;
+            forceAll();
+            closeChannel();
+            open();
+            return flushing;
+        } finally {
+            writeLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    void delete(Collection<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        syncLock.lock();
+        writeLock.lock();
+        try {
+            closeChannel();
+        } finally {
+            writeLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Forces everything appended so far, unless a concurrent fsync already covered {@code ticket}.
+     */
+    private void sync(long ticket) {
+        syncLock.lock();
+        try {
+            if (synced >= ticket) {
+                return;
+            }
+            FileChannel current;
+            long covered;
+            writeLock.lock();
+            try {
+                current = channel;
+                covered = appended;
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synced = covered;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Called with both locks held.
+     */
+    private void forceAll() {
+        try {
+            if (channel != null && synced < appended) {
+                channel.force(false);
+            }
+            synced = appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open() {
+        active = directory.resolve(PREFIX + (++segment) + SUFFIX);
+        try {
+            channel = FileChannel.open(active, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .sorted((a, b) -> Long.compare(number(a), number(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long number(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Parses one line, skipping a line torn by a crash mid-write.
+     */
+    private static DeviceStateReportDTO parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 3) {
+            return null;
+        }
+        try {
+            return new DeviceStateReportDTO(Long.parseLong(fields[0]), DeviceState.valueOf(fields[1]),
+                    Instant.ofEpochMilli(Long.parseLong(fields[2])));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    record Recovered(List<DeviceStateReportDTO> reports, List<Path> segments) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.oneglobal.chalenge.service.retention;
+
+import com.oneglobal.chalenge.entity.dto.ArchivedDeviceDTO;
+import com.oneglobal.chalenge.pagination.KeysetPage;
+import com.oneglobal.chalenge.repository.ArchivedDeviceRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class DeviceArchiveService {
+
+    private final ArchivedDeviceRepository repository;
+
+    public DeviceArchiveService(ArchivedDeviceRepository repository) {
+        this.repository = repository;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ArchivedDeviceDTO> findById(Long id) {
+        return repository.findDtoById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<ArchivedDeviceDTO> findAll(String brand, long afterId, int limit) {
+        List<ArchivedDeviceDTO> rows = repository.findDtosAfter(brand, afterId, Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, ArchivedDeviceDTO::id);
+    }
+}
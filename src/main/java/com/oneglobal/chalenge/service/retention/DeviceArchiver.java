@@ -0,0 +1,65 @@
+package com.oneglobal.chalenge.service.retention;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.repository.ArchivedDeviceRepository;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves one chunk of devices into the archive per transaction. The rows are locked first and
+ * checked again, since a device may have been reactivated after it was selected. Then they are
+ * copied with INSERT ... SELECT and removed with a single DELETE.
+ */
+@Component
+public class DeviceArchiver {
+
+    private final DeviceRepository repository;
+    private final ArchivedDeviceRepository archiveRepository;
+    private final ApplicationEventPublisher events;
+    private final Clock clock;
+
+    public DeviceArchiver(DeviceRepository repository, ArchivedDeviceRepository archiveRepository,
+                          ApplicationEventPublisher events, Clock clock) {
+        this.repository = repository;
+        this.archiveRepository = archiveRepository;
+        this.events = events;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the number of devices archived
+     */
+    @Transactional
+    public int archive(List<Long> ids, LocalDateTime cutoff) {
+        List<Long> expired = new ArrayList<>(ids.size());
+        List<DeviceChangedEvent> changes = new ArrayList<>(ids.size());
+        for (Device device : repository.findAllForUpdate(ids)) {
+            LocalDateTime since = device.getStateChangedAt() != null
+                    ? device.getStateChangedAt() : device.getCreationTime();
+            if (device.getState() != DeviceState.INACTIVE || !since.isBefore(cutoff)) {
+                continue;
+            }
+            expired.add(device.getId());
+            changes.add(new DeviceChangedEvent(DeviceChangeType.ARCHIVED, device.getId(),
+                    new DeviceSnapshot(device.getBrand(), device.getState(), device.getVersion()), null));
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyFromDevices(expired, LocalDateTime.now(clock));
+        repository.deleteAllByIdIn(expired);
+        changes.forEach(events::publishEvent);
+        return expired.size();
+    }
+}
@@ -0,0 +1,126 @@
+package com.oneglobal.chalenge.service.retention;
+
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archives devices that have been INACTIVE for longer than {@code device.retention.inactive-for}.
+ * The table is walked in id order, one {@link DeviceArchiver} transaction per chunk, so row locks are
+ * held only for one small chunk. After each chunk the job sleeps in proportion to the time the chunk
+ * took, so it uses at most {@code duty-cycle} of one connection. A slow database therefore slows the
+ * job down instead of the job slowing live traffic.
+ */
+@Component
+@ConditionalOnProperty(prefix = "device.retention", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DeviceRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceRetentionJob.class);
+
+    private final DeviceRepository repository;
+    private final DeviceArchiver archiver;
+    private final Clock clock;
+    private final Duration inactiveFor;
+    private final int chunkSize;
+    private final double dutyCycle;
+    private final int maxPerRun;
+    private final Counter archivedCounter;
+    private final Counter failedChunks;
+    private final Timer chunkTimer;
+    private volatile boolean stopping;
+
+    public DeviceRetentionJob(DeviceRepository repository, DeviceArchiver archiver, Clock clock,
+                              @Value("${device.retention.inactive-for:P90D}") Duration inactiveFor,
+                              @Value("${device.retention.chunk-size:500}") int chunkSize,
+                              @Value("${device.retention.duty-cycle:0.2}") double dutyCycle,
+                              @Value("${device.retention.max-per-run:100000}") int maxPerRun,
+                              MeterRegistry registry) {
+        if (dutyCycle <= 0 || dutyCycle > 1) {
+            throw new IllegalArgumentException("device.retention.duty-cycle must be in (0, 1]");
+        }
+        this.repository = repository;
+        this.archiver = archiver;
+        this.clock = clock;
+        this.inactiveFor = inactiveFor;
+        this.chunkSize = chunkSize;
+        this.dutyCycle = dutyCycle;
+        this.maxPerRun = maxPerRun;
+        this.archivedCounter = Counter.builder("device.retention.archived")
+                .description("Devices moved to the archive")
+                .register(registry);
+        this.failedChunks = Counter.builder("device.retention.failures")
+                .description("Chunks that failed and were left for the next run")
+                .register(registry);
+        this.chunkTimer = Timer.builder("device.retention.chunk")
+                .description("Time to archive one chunk, including the row locks")
+                .register(registry);
+    }
+
+    /**
+     * @return the number of devices archived by this run
+     */
+    @Scheduled(fixedDelayString = "${device.retention.interval:PT1H}",
+            initialDelayString = "${device.retention.initial-delay:PT1M}")
+    public int run() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(inactiveFor);
+        long afterId = 0;
+        int archived = 0;
+        while (archived < maxPerRun && !stopping) {
+            List<Long> ids = repository.findInactiveIdsBefore(cutoff, afterId,
+                    Limit.of(Math.min(chunkSize, maxPerRun - archived)));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+
+            long started = System.nanoTime();
+            try {
+                int moved = archiver.archive(ids, cutoff);
+                archived += moved;
+                archivedCounter.increment(moved);
+            } catch (DataAccessException e) {
+                failedChunks.increment();
+                log.warn("Archiving devices {}..{} failed, retrying on the next run: {}",
+                        ids.get(0), afterId, e.getMostSpecificCause().getMessage());
+            }
+            long busy = System.nanoTime() - started;
+            chunkTimer.record(busy, TimeUnit.NANOSECONDS);
+            pause(busy);
+        }
+        if (archived > 0) {
+            log.info("Archived {} devices inactive since before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private void pause(long busyNanos) {
+        long idleNanos = (long) (busyNanos * (1 - dutyCycle) / dutyCycle);
+        try {
+            TimeUnit.NANOSECONDS.sleep(idleNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.oneglobal.chalenge.service.search;
+
+import com.oneglobal.chalenge.datasource.ReadRoutingContext;
+import com.oneglobal.chalenge.entity.dto.DeviceName;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over device name and brand, for typo-tolerant and prefix search without
+ * scanning the table. Every device gets an ordinal, and each of its {@link Trigrams} keeps a posting
+ * list of ordinals. A query counts how many of its trigrams each device shares and ranks devices by
+ * that count, then by how close the device's text is to the query in length.
+ *
+ * <p>Committed writes are applied as they happen. An update that keeps name and brand, such as a state
+ * change, leaves the index alone; a rename appends a new ordinal and tombstones the old one, and once
+ * tombstones make up a quarter of the ordinals the index is compacted in place. The scheduled rebuild
+ * reloads the index from the database, which corrects anything missed. Changes committed while it runs
+ * are replayed onto the new index before it is swapped in.
+ */
+@Service
+public class DeviceNameIndex {
+
+    static final int MAX_QUERY_LENGTH = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceNameIndex.class);
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::shared)
+            .thenComparingDouble(Hit::similarity)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final DeviceRepository repository;
+    private final double minSimilarity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Postings postings = new Postings();
+    private List<DeviceChangedEvent> pending;
+
+    public DeviceNameIndex(DeviceRepository repository,
+                           @Value("${device.search.min-similarity:0.5}") double minSimilarity,
+                           MeterRegistry registry) {
+        if (minSimilarity <= 0 || minSimilarity > 1) {
+            throw new IllegalArgumentException("device.search.min-similarity must be in (0, 1]");
+        }
+        this.repository = repository;
+        this.minSimilarity = minSimilarity;
+        Gauge.builder("device.search.documents", this, DeviceNameIndex::size)
+                .description("Devices in the name search index")
+                .register(registry);
+    }
+
+    /**
+     * Returns the ids of the best matches, best first. A device matches when it shares at least
+     * {@code device.search.min-similarity} of the query's trigrams.
+     */
+    public List<Long> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Query cannot be longer than " + MAX_QUERY_LENGTH + " characters");
+        }
+        int[] grams = Trigrams.of(query, true);
+        if (grams.length == 0) {
+            return List.of();
+        }
+        int minShared = Math.max(1, (int) Math.ceil(grams.length * minSimilarity));
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING);
+        lock.readLock().lock();
+        try {
+            Postings index = postings;
+            // A query has at most 2 * MAX_QUERY_LENGTH + 1 trigrams, so counts fit in an unsigned byte
+            byte[] shared = new byte[index.size];
+            int[] candidates = new int[64];
+            int candidateCount = 0;
+            for (int gram : grams) {
+                int[] list = index.lists[gram];
+                for (int i = 0, n = index.sizes[gram]; i < n; i++) {
+                    int ordinal = list[i];
+                    if ((++shared[ordinal] & 0xFF) == minShared) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = ordinal;
+                    }
+                }
+            }
+            // Only devices sharing at least as many trigrams as the limit-th best one can be ranked,
+            // so a histogram of the counts spares scoring the long tail of weak matches
+            int[] histogram = new int[grams.length + 1];
+            for (int i = 0; i < candidateCount; i++) {
+                if (!index.removed.get(candidates[i])) {
+                    histogram[shared[candidates[i]] & 0xFF]++;
+                }
+            }
+            int cutoff = grams.length;
+            for (int atLeast = histogram[cutoff]; cutoff > minShared && atLeast < limit; ) {
+                atLeast += histogram[--cutoff];
+            }
+            for (int i = 0; i < candidateCount; i++) {
+                int ordinal = candidates[i];
+                int common = shared[ordinal] & 0xFF;
+                if (common < cutoff || index.removed.get(ordinal)) {
+                    continue;
+                }
+                double similarity = (double) common / (grams.length + index.gramCounts[ordinal] - common);
+                Hit hit = new Hit(index.ids[ordinal], common, similarity);
+                if (best.size() < limit) {
+                    best.offer(hit);
+                } else if (RANKING.compare(hit, best.peek()) > 0) {
+                    best.poll();
+                    best.offer(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Long[] ranked = new Long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().id();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals in use, tombstoned ones included; searches allocate a counter per ordinal.
+     */
+    int ordinals() {
+        lock.readLock().lock();
+        try {
+            return postings.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(postings, event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the index from the database; the first run builds it at startup. Searches keep using
+     * the previous index until the new one is complete. It reads the primary, since a lagging replica
+     * would undo changes already applied from events.
+     */
+    @Scheduled(fixedDelayString = "${device.search.rebuild-interval:PT15M}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            setPending(new ArrayList<>());
+            Postings fresh = ReadRoutingContext.onPrimary(this::load);
+            lock.writeLock().lock();
+            try {
+                pending.forEach(event -> apply(fresh, event));
+                postings = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Device name index rebuilt: {} devices", fresh.ordinals.size());
+        } finally {
+            setPending(null);
+            rebuildLock.unlock();
+        }
+    }
+
+    private Postings load() {
+        Postings fresh = new Postings();
+        try (Stream<DeviceName> names = repository.streamNames()) {
+            names.forEach(device -> fresh.add(device.id(), device.name(), device.brand()));
+        }
+        return fresh;
+    }
+
+    private void setPending(List<DeviceChangedEvent> events) {
+        lock.writeLock().lock();
+        try {
+            pending = events;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Postings index, DeviceChangedEvent event) {
+        DeviceResponseDTO device = event.device();
+        if (device == null) {
+            index.remove(event.id());
+        } else {
+            index.add(device.id(), device.name(), device.brand());
+        }
+    }
+
+    private record Hit(long id, int shared, double similarity) {
+    }
+
+    /**
+     * The index itself; not thread-safe, guarded by the enclosing read/write lock.
+     */
+    private static final class Postings {
+
+        private static final int COMPACT_MIN_TOMBSTONES = 1024;
+
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final int[][] lists = new int[Trigrams.SPACE][];
+        private final int[] sizes = new int[Trigrams.SPACE];
+        private final BitSet removed = new BitSet();
+        private long[] ids = new long[1024];
+        private short[] gramCounts = new short[1024];
+        private String[] texts = new String[1024];
+        private int size;
+        private int tombstones;
+
+        void add(long id, String name, String brand) {
+            String text = name + " " + brand;
+            Integer current = ordinals.get(id);
+            if (current != null && texts[current].equals(text)) {
+                return;
+            }
+            remove(id);
+            int[] grams = Trigrams.of(text, false);
+            if (grams.length == 0) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                gramCounts = Arrays.copyOf(gramCounts, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+            }
+            int ordinal = size++;
+            ids[ordinal] = id;
+            gramCounts[ordinal] = (short) Math.min(grams.length, Short.MAX_VALUE);
+            texts[ordinal] = text;
+            for (int gram : grams) {
+                int[] list = lists[gram];
+                if (list == null) {
+                    list = lists[gram] = new int[4];
+                } else if (sizes[gram] == list.length) {
+                    list = lists[gram] = Arrays.copyOf(list, list.length * 2);
+                }
+                list[sizes[gram]++] = ordinal;
+            }
+            ordinals.put(id, ordinal);
+        }
+
+        void remove(long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                removed.set(ordinal);
+                texts[ordinal] = null;
+                if (++tombstones >= COMPACT_MIN_TOMBSTONES && tombstones * 4 >= size) {
+                    compact();
+                }
+            }
+        }
+
+        /**
+         * Drops tombstoned ordinals and renumbers the rest in order, so posting lists stay sorted.
+         */
+        private void compact() {
+            int[] renumbered = new int[size];
+            int live = 0;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (removed.get(ordinal)) {
+                    renumbered[ordinal] = -1;
+                    continue;
+                }
+                renumbered[ordinal] = live;
+                ids[live] = ids[ordinal];
+                gramCounts[live] = gramCounts[ordinal];
+                texts[live] = texts[ordinal];
+                ordinals.put(ids[live], live);
+                live++;
+            }
+            Arrays.fill(texts, live, size, null);
+            for (int gram = 0; gram < lists.length; gram++) {
+                int[] list = lists[gram];
+                int kept = 0;
+                for (int i = 0, n = sizes[gram]; i < n; i++) {
+                    int ordinal = renumbered[list[i]];
+                    if (ordinal >= 0) {
+                        list[kept++] = ordinal;
+                    }
+                }
+                sizes[gram] = kept;
+            }
+            removed.clear();
+            tombstones = 0;
+            size = live;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.oneglobal.chalenge.service.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Splits text into the trigrams {@link DeviceNameIndex} indexes. Text is folded to lower-case
+ * ASCII letters and digits (accents are stripped, everything else separates words) and each word
+ * is padded with two leading and one trailing blank, so "Pixel" yields {@code "  p", " pi",
+ * "pix", "ixe", "xel", "el "}. A trigram is packed into an int of three 6-bit character codes.
+ */
+final class Trigrams {
+
+    static final int SPACE = 1 << 18;
+
+    private static final int BLANK = 0;
+
+    private Trigrams() {
+    }
+
+    /**
+     * Returns the distinct trigrams of the text in ascending order. With {@code prefix}, the last
+     * word is treated as unfinished and gets no trailing blank, so "iph" matches "iphone".
+     */
+    static int[] of(String text, boolean prefix) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+        int[] grams = new int[folded.length() * 2 + 2];
+        int count = 0;
+        int previous = BLANK;
+        int beforePrevious = BLANK;
+        boolean inWord = false;
+
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            int code = code(c);
+            if (code == BLANK) {
+                if (inWord) {
+                    grams[count++] = pack(beforePrevious, previous, BLANK);
+                    previous = BLANK;
+                    beforePrevious = BLANK;
+                    inWord = false;
+                }
+                continue;
+            }
+            grams[count++] = pack(beforePrevious, previous, code);
+            beforePrevious = previous;
+            previous = code;
+            inWord = true;
+        }
+        if (inWord && !prefix) {
+            grams[count++] = pack(beforePrevious, previous, BLANK);
+        }
+
+        int[] sorted = Arrays.copyOf(grams, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return BLANK;
+    }
+
+    private static int pack(int first, int second, int third) {
+        return first << 12 | second << 6 | third;
+    }
+}
@@ -0,0 +1,12 @@
+-- Schema as created by hibernate.hbm2ddl for MySQL 8 before optimistic locking, state timestamps, the archive and
+-- sequence ids were added. Databases created that way are baselined at this version
+-- (spring.flyway.baseline-on-migrate) instead of running it, and then upgraded by V2.
+
+create table device (
+    creation_time datetime(6) not null,
+    id bigint not null auto_increment,
+    brand varchar(255) not null,
+    name varchar(255) not null,
+    state enum ('AVAILABLE','INACTIVE','IN_USE') not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,44 @@
+-- Optimistic locking, state change timestamps, the archive, pooled sequence ids and the search indexes.
+
+alter table device add column version bigint not null default 0;
+
+alter table device add column state_changed_at datetime(6);
+
+-- Ids now come from device_seq
+alter table device modify id bigint not null;
+
+create table device_archive (
+    archived_at datetime(6) not null,
+    creation_time datetime(6) not null,
+    id bigint not null,
+    state_changed_at datetime(6),
+    version bigint not null,
+    brand varchar(255) not null,
+    name varchar(255) not null,
+    state enum ('AVAILABLE','INACTIVE','IN_USE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table device_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- Continue after the ids already taken. The pooled optimizer (allocationSize 50) treats a stored value as the top
+-- of a block and hands out the 49 ids below it first, so the next block must end 50 above the highest id.
+-- An empty table stores 50, which hands out 1 to 50 as the initial value 1 would.
+insert into device_seq select coalesce(max(id), 0) + 50 from device;
+
+create index idx_device_brand
+   on device (brand);
+
+create index idx_device_state
+   on device (state);
+
+create index idx_device_state_brand
+   on device (state, brand);
+
+create index idx_device_creation_time
+   on device (creation_time);
+
+create index idx_device_archive_archived_at
+   on device_archive (archived_at);
@@ -2,26 +2,47 @@ package com.oneglobal.chalenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchErrorDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceMultiGetResponseDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSearchCriteria;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStatsDTO;
 import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.idempotency.IdempotencyStore;
 import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.pagination.CursorCodec;
+import com.oneglobal.chalenge.pagination.KeysetPage;
+import com.oneglobal.chalenge.service.DeviceBatchReader;
 import com.oneglobal.chalenge.service.DeviceService;
+import com.oneglobal.chalenge.service.DeviceStatsService;
+import com.oneglobal.chalenge.service.ingest.DeviceStateIngestor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,11 +58,24 @@ class DeviceControllerTest {
     @Mock
     private DeviceMapper mapper;
 
+    @Mock
+    private DeviceStatsService statsService;
+
+    @Mock
+    private DeviceStateIngestor stateIngestor;
+
+    @Mock
+    private DeviceBatchReader batchReader;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private IdempotencyStore idempotency = new IdempotencyStore(Duration.ofMinutes(1), 1000, new SimpleMeterRegistry());
+
     @InjectMocks
     private DeviceController controller;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
     @BeforeEach
     void setup() {
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
@@ -52,7 +86,7 @@ class DeviceControllerTest {
         DeviceRequestDTO requestDto = new DeviceRequestDTO("Pixel 8", "Google", DeviceState.AVAILABLE);
         Device savedDevice = new Device();
         DeviceResponseDTO responseDto = new DeviceResponseDTO(
-                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now()
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L
         );
 
         when(service.create(any())).thenReturn(savedDevice);
@@ -66,21 +100,106 @@ class DeviceControllerTest {
                 .andExpect(jsonPath("$.name").value("Pixel 8"));
     }
 
+    @Test
+    void create_WithRepeatedIdempotencyKey_ShouldReplayWithoutCreatingAgain() throws Exception {
+        DeviceRequestDTO requestDto = new DeviceRequestDTO("Pixel 8", "Google", DeviceState.AVAILABLE);
+        Device savedDevice = new Device();
+        when(service.create(requestDto)).thenReturn(savedDevice);
+        when(mapper.toResponseDTO(savedDevice)).thenReturn(new DeviceResponseDTO(
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L));
+        String body = objectMapper.writeValueAsString(requestDto);
+
+        mockMvc.perform(post("/devices").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mockMvc.perform(post("/devices").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(1L));
+        mockMvc.perform(post("/devices").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceRequestDTO("Pixel 9", "Google", null))))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(service, times(1)).create(any());
+    }
+
+    @Test
+    void createAll_ShouldReturnIdsAndErrors() throws Exception {
+        List<DeviceRequestDTO> requestDtos = List.of(
+                new DeviceRequestDTO("Pixel 8", "Google", DeviceState.AVAILABLE),
+                new DeviceRequestDTO("Pixel 9", null, DeviceState.AVAILABLE));
+
+        when(service.createAll(requestDtos)).thenReturn(new DeviceBatchResponseDTO(
+                Arrays.asList(5L, null), List.of(new DeviceBatchErrorDTO(1, "Brand is required"))));
+
+        mockMvc.perform(post("/devices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ids[0]").value(5L))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("Brand is required"));
+    }
+
     @Test
     void getById_WhenFound_ShouldReturn200OK() throws Exception {
-        Device device = new Device();
         DeviceResponseDTO responseDto = new DeviceResponseDTO(
-                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now()
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L
         );
 
-        when(service.findById(1L)).thenReturn(Optional.of(device));
-        when(mapper.toResponseDTO(device)).thenReturn(responseDto);
+        when(service.findById(1L)).thenReturn(Optional.of(responseDto));
 
         mockMvc.perform(get("/devices/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getById_WhenETagMatches_ShouldReturn304WithoutBody() throws Exception {
+        DeviceResponseDTO responseDto = new DeviceResponseDTO(
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 3L
+        );
+
+        when(service.findById(1L)).thenReturn(Optional.of(responseDto));
+
+        mockMvc.perform(get("/devices/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getByIds_ShouldReturnDevicesAndMissingIds() throws Exception {
+        DeviceResponseDTO responseDto = new DeviceResponseDTO(
+                2L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L
+        );
+
+        when(batchReader.findAllById(List.of(2L, 5L)))
+                .thenReturn(new DeviceMultiGetResponseDTO(List.of(responseDto), List.of(5L)));
+
+        mockMvc.perform(get("/devices/multi").param("ids", "2,5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices[0].id").value(2L))
+                .andExpect(jsonPath("$.missing[0]").value(5L));
+    }
+
+    @Test
+    void update_WhenIfMatchIsStale_ShouldReturn412() throws Exception {
+        DeviceRequestDTO requestDto = new DeviceRequestDTO("Pixel 8", "Google", DeviceState.AVAILABLE);
+
+        when(service.update(eq(1L), any(), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("Device 1 is at version 3"));
+
+        mockMvc.perform(put("/devices/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void getById_WhenNotFound_ShouldReturn404() throws Exception {
         when(service.findById(1L)).thenReturn(Optional.empty());
@@ -92,21 +211,162 @@ class DeviceControllerTest {
     @Test
     void getAll_ShouldReturn200OK() throws Exception {
         DeviceResponseDTO responseDto = new DeviceResponseDTO(
-                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now()
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L
         );
 
-        when(service.findAll()).thenReturn(List.of(new Device()));
-        when(mapper.toResponseDTOList(any())).thenReturn(List.of(responseDto));
+        when(service.findAll(0L, 50)).thenReturn(new KeysetPage<>(List.of(responseDto), null));
 
         mockMvc.perform(get("/devices"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
                 .andExpect(jsonPath("$[0].id").value(1L));
+
+        verify(mapper, never()).toResponseDTOList(any());
+    }
+
+    @Test
+    void getAll_WhenMorePagesExist_ShouldLinkToNextPage() throws Exception {
+        String cursor = CursorCodec.encode(42L);
+        DeviceResponseDTO first = new DeviceResponseDTO(
+                41L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
+        DeviceResponseDTO second = new DeviceResponseDTO(
+                42L, "Pixel 9", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
+        when(service.findAll(0L, 2)).thenReturn(new KeysetPage<>(List.of(first, second), 42L));
+
+        mockMvc.perform(get("/devices").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "<http://localhost/devices?next=" + cursor + "&limit=2>; rel=\"next\""));
+
+        when(service.findAll(42L, 2)).thenReturn(new KeysetPage<>(List.of(), null));
+
+        mockMvc.perform(get("/devices").param("limit", "2").param("next", cursor))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void search_ShouldBindAllCriteria() throws Exception {
+        DeviceSearchCriteria criteria = new DeviceSearchCriteria("Google", DeviceState.AVAILABLE,
+                LocalDateTime.of(2024, 1, 1, 0, 0), null);
+        DeviceResponseDTO responseDto = new DeviceResponseDTO(
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L
+        );
+
+        when(service.search(criteria, 0L, 10)).thenReturn(new KeysetPage<>(List.of(new Device()), null));
+        when(mapper.toResponseDTOList(any())).thenReturn(List.of(responseDto));
+
+        mockMvc.perform(get("/devices/search")
+                        .param("brand", "Google")
+                        .param("state", "AVAILABLE")
+                        .param("createdFrom", "2024-01-01T00:00:00")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].brand").value("Google"));
+    }
+
+    @Test
+    void getAll_WhenPageETagMatches_ShouldReturn304WithoutBody() throws Exception {
+        KeysetPage<DeviceResponseDTO> page = new KeysetPage<>(List.of(new DeviceResponseDTO(
+                1L, "Pixel 8", "Google", DeviceState.AVAILABLE, LocalDateTime.now(), 0L)), null);
+        when(service.findAll(0L, 50)).thenReturn(page);
+
+        String etag = mockMvc.perform(get("/devices"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/devices").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void searchByName_ShouldReturnRankedMatches() throws Exception {
+        DeviceResponseDTO responseDto = new DeviceResponseDTO(
+                1L, "Galaxy S24", "Samsung", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
+        when(service.searchByName("galxy", 20)).thenReturn(List.of(responseDto));
+
+        mockMvc.perform(get("/devices/search/name").param("q", "galxy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Galaxy S24"));
+    }
+
+    @Test
+    void getAll_WithInvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/devices").param("next", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export_ShouldStreamOneJsonObjectPerLine() throws Exception {
+        DeviceResponseDTO first = new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L);
+        DeviceResponseDTO second = new DeviceResponseDTO(2L, "Pixel 9", "Google", DeviceState.AVAILABLE, null, 0L);
+
+        doAnswer(invocation -> {
+            Consumer<DeviceResponseDTO> sink = invocation.getArgument(2);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(service).export(eq(DeviceState.AVAILABLE), eq("Google"), any());
+
+        MvcResult result = mockMvc.perform(get("/devices/export")
+                        .param("state", "AVAILABLE")
+                        .param("brand", "Google"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
+    @Test
+    void reportStates_ShouldReturn202WhenBuffered() throws Exception {
+        when(stateIngestor.ingest(any())).thenReturn(new DeviceStateReportResponseDTO(2,
+                List.of(new DeviceBatchErrorDTO(2, "State is required")), false));
+
+        mockMvc.perform(post("/devices/state-reports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"state\":\"IN_USE\"},{\"id\":1,\"state\":\"AVAILABLE\"},{\"id\":2}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(2));
+    }
+
+    @Test
+    void reportStates_ShouldReturn503WithRetryAfterWhenBufferIsFull() throws Exception {
+        when(stateIngestor.ingest(any())).thenReturn(new DeviceStateReportResponseDTO(0,
+                List.of(new DeviceBatchErrorDTO(0, "Ingestion buffer is full")), true));
+
+        mockMvc.perform(post("/devices/state-reports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"state\":\"IN_USE\"}]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void getStats_ShouldReturnCountsWithoutQueryingDevices() throws Exception {
+        when(statsService.getStats()).thenReturn(new DeviceStatsDTO(3,
+                Map.of(DeviceState.AVAILABLE, 2L, DeviceState.IN_USE, 1L),
+                Map.of("Google", 3L),
+                Map.of("Google", Map.of(DeviceState.AVAILABLE, 2L, DeviceState.IN_USE, 1L)),
+                null));
+
+        mockMvc.perform(get("/devices/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.byState.AVAILABLE").value(2))
+                .andExpect(jsonPath("$.byBrandAndState.Google.IN_USE").value(1));
+
+        verifyNoInteractions(service);
     }
 
     @Test
     void delete_WhenInUse_ShouldReturn409Conflict() throws Exception {
         doThrow(new IllegalStateException("Cannot delete a device that is IN_USE"))
-                .when(service).delete(1L);
+                .when(service).delete(1L, null);
 
         mockMvc.perform(delete("/devices/1"))
                 .andExpect(status().isConflict());
@@ -114,7 +374,7 @@ class DeviceControllerTest {
 
     @Test
     void delete_WhenSuccessful_ShouldReturn204NoContent() throws Exception {
-        doNothing().when(service).delete(1L);
+        doNothing().when(service).delete(1L, null);
 
         mockMvc.perform(delete("/devices/1"))
                 .andExpect(status().isNoContent());
@@ -125,7 +385,7 @@ class DeviceControllerTest {
         DeviceRequestDTO requestDto =
                 new DeviceRequestDTO("New Name", "Google", DeviceState.IN_USE);
 
-        when(service.update(any(), any()))
+        when(service.update(any(), any(), any()))
                 .thenThrow(new IllegalStateException("Cannot update name or brand when device is IN_USE"));
 
         mockMvc.perform(put("/devices/1")
@@ -0,0 +1,40 @@
+package com.oneglobal.chalenge.datasource;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+
+    @Test
+    void readsFromAClientThatJustWroteStayOnPrimary() throws Exception {
+        assertFalse(primaryOnlyDuring(request("GET", "client-a")));
+
+        assertTrue(primaryOnlyDuring(request("PATCH", "client-a")));
+        assertTrue(primaryOnlyDuring(request("GET", "client-a")));
+        assertFalse(primaryOnlyDuring(request("GET", "client-b")));
+        assertFalse(ReadRoutingContext.isPrimaryOnly());
+    }
+
+    private boolean primaryOnlyDuring(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean primaryOnly = new AtomicBoolean();
+        FilterChain chain = (req, res) -> primaryOnly.set(ReadRoutingContext.isPrimaryOnly());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return primaryOnly.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/devices/1");
+        request.addHeader(ReadYourWritesFilter.CLIENT_HEADER, client);
+        return request;
+    }
+}
@@ -0,0 +1,129 @@
+package com.oneglobal.chalenge.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("primary");
+    private final ToggleableDataSource replica = new ToggleableDataSource(database("replica"));
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica));
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadRoutingContext.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndOthersUsePrimary() {
+        assertEquals("replica", reads.execute(status -> node()));
+        assertEquals("primary", writes.execute(status -> node()));
+    }
+
+    @Test
+    void primaryOnlyContextKeepsReadsOnPrimary() {
+        ReadRoutingContext.usePrimary();
+
+        assertEquals("primary", reads.execute(status -> node()));
+    }
+
+    @Test
+    void onPrimaryKeepsOneReadOnPrimaryAndRestoresRouting() {
+        assertEquals("primary", reads.execute(status -> ReadRoutingContext.onPrimary(this::node)));
+        assertEquals("replica", reads.execute(status -> node()));
+
+        ReadRoutingContext.usePrimary();
+        ReadRoutingContext.onPrimary(() -> null);
+        assertEquals("primary", reads.execute(status -> node()));
+    }
+
+    @Test
+    void unhealthyReplicaFallsBackToPrimaryUntilHealthCheckPasses() {
+        replica.down = true;
+        assertEquals("primary", reads.execute(status -> node()));
+        assertEquals(0, routing.healthyReplicas());
+
+        replica.down = false;
+        assertEquals("primary", reads.execute(status -> node()));
+
+        routing.checkHealth();
+        assertEquals(1, routing.healthyReplicas());
+        assertEquals("replica", reads.execute(status -> node()));
+    }
+
+    @Test
+    void busyReplicaPoolFallsBackForThatReadOnly() {
+        replica.busy = true;
+        assertEquals("primary", reads.execute(status -> node()));
+        routing.checkHealth();
+        assertEquals(1, routing.healthyReplicas());
+
+        replica.busy = false;
+        assertEquals("replica", reads.execute(status -> node()));
+    }
+
+    private String node() {
+        return jdbc.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(20))");
+        jdbc.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private static final class ToggleableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+        private volatile boolean busy;
+
+        private ToggleableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLNonTransientConnectionException("Connection refused", "08S01");
+            }
+            if (busy) {
+                // What Hikari throws when no pooled connection frees up in time
+                throw new SQLTransientConnectionException("replica - Connection is not available, request timed out");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.oneglobal.chalenge.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 1000, new SimpleMeterRegistry());
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void repeatedKeyReplaysTheFirstResult() {
+        IdempotencyStore.Result<Integer> first = store.execute("POST", "k1", "body", writes::incrementAndGet, v -> 1);
+        IdempotencyStore.Result<Integer> retry = store.execute("POST", "k1", "body", writes::incrementAndGet, v -> 1);
+        IdempotencyStore.Result<Integer> otherScope = store.execute("PUT", "k1", "body", writes::incrementAndGet, v -> 1);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(1, retry.value());
+        assertEquals(2, otherScope.value());
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("POST", "k1", "other body", writes::incrementAndGet, v -> 1));
+    }
+
+    @Test
+    void failedWriteIsForgottenSoItCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> store.execute("POST", "k1", "body", () -> {
+            throw new IllegalStateException("database down");
+        }, v -> 1));
+
+        IdempotencyStore.Result<Integer> retry = store.execute("POST", "k1", "body", writes::incrementAndGet, v -> 1);
+        assertFalse(retry.replayed());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstWrite() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<IdempotencyStore.Result<Integer>> first = executor.submit(() -> store.execute("POST", "k1", "body", () -> {
+                writing.countDown();
+                await(release);
+                return writes.incrementAndGet();
+            }, v -> 1));
+            writing.await(5, TimeUnit.SECONDS);
+            Future<IdempotencyStore.Result<Integer>> duplicate = executor.submit(
+                    () -> store.execute("POST", "k1", "body", writes::incrementAndGet, v -> 1));
+            release.countDown();
+
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(duplicate.get(5, TimeUnit.SECONDS).replayed());
+            assertEquals(1, writes.get());
+        }
+    }
+
+    @Test
+    void rejectsBlankAndOverlongKeys() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute("POST", " ", "body", () -> 1, v -> 1));
+        assertThrows(IllegalArgumentException.class, () -> store.execute("POST",
+                "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), "body", () -> 1, v -> 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
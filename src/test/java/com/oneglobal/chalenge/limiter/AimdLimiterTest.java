@@ -0,0 +1,65 @@
+package com.oneglobal.chalenge.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AimdLimiter limiter = new AimdLimiter(
+            new LimiterProperties.Budget(10, 2, 12, Duration.ofNanos(THRESHOLD)), 0.5, clock::get);
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(1, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsOnlyWhileTheLimitIsUsed() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(1, false);
+        }
+        assertEquals(10, limiter.limit());
+
+        for (int i = 0; i < 9; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 15; i++) {
+            limiter.tryAcquire();
+            limiter.release(1, false);
+        }
+        assertEquals(11, limiter.limit());
+    }
+
+    @Test
+    void backsOffOncePerThresholdAndNotBelowTheMinimum() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+        }
+        assertTrue(limiter.release(THRESHOLD + 1, false));
+        assertFalse(limiter.release(1, true));
+        assertEquals(5, limiter.limit());
+
+        clock.addAndGet(THRESHOLD);
+        assertTrue(limiter.backOff());
+        clock.addAndGet(THRESHOLD);
+        assertTrue(limiter.backOff());
+        assertEquals(2, limiter.limit());
+    }
+}
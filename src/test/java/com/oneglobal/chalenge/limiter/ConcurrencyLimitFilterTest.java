@@ -0,0 +1,102 @@
+package com.oneglobal.chalenge.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AimdLimiter reads = limiter(4);
+    private final AimdLimiter writes = limiter(1);
+    private final AimdLimiter bulk = slowLimiter(4);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(reads, writes, bulk, registry);
+
+    @Test
+    void fullBudgetIsAnsweredWith503AndRetryAfter() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain chain = (req, res) -> nested.set(send("POST", "/devices", (r, s) -> { }));
+
+        MockHttpServletResponse outer = send("PATCH", "/devices/1", chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, registry.get("device.limiter.rejected").tag("budget", "write").counter().count());
+        assertEquals(0, writes.inFlight());
+    }
+
+    @Test
+    void failingWritesShrinkTheReadBudgetToo() throws Exception {
+        send("DELETE", "/devices/1", (req, res) -> ((HttpServletResponse) res).setStatus(500));
+
+        assertEquals(1, writes.limit());
+        assertEquals(3, reads.limit());
+        assertEquals(3.0, registry.get("device.limiter.limit").tag("budget", "read").gauge().value());
+    }
+
+    @Test
+    void slowBulkWritesShrinkOnlyTheBulkBudget() throws Exception {
+        send("POST", "/devices/batch", (req, res) -> ((HttpServletResponse) res).setStatus(200));
+
+        assertEquals(3, bulk.limit());
+        assertEquals(1, writes.limit());
+        assertEquals(4, reads.limit());
+        assertEquals(0, bulk.inFlight());
+    }
+
+    @Test
+    void replayedIdempotentWritesDoNotAdaptTheLimit() throws Exception {
+        AimdLimiter slowWrites = slowLimiter(4);
+        ConcurrencyLimitFilter replaying =
+                new ConcurrencyLimitFilter(reads, slowWrites, bulk, new SimpleMeterRegistry());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        replaying.doFilter(new MockHttpServletRequest("POST", "/devices"), response,
+                (req, res) -> ((HttpServletResponse) res).setHeader("Idempotent-Replayed", "true"));
+
+        assertEquals(4, slowWrites.limit());
+        assertEquals(4, reads.limit());
+        assertEquals(0, slowWrites.inFlight());
+    }
+
+    @Test
+    void streamsAndOtherPathsAreNotLimited() throws Exception {
+        FilterChain chain = (req, res) -> ((HttpServletResponse) res).setStatus(200);
+        for (int i = 0; i < 10; i++) {
+            reads.tryAcquire();
+        }
+        assertEquals(200, send("GET", "/devices/changes", chain).getStatus());
+        assertEquals(200, send("GET", "/actuator/health", chain).getStatus());
+        assertEquals(503, send("GET", "/devices/1", chain).getStatus());
+    }
+
+    private MockHttpServletResponse send(String method, String path, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, chain);
+        return response;
+    }
+
+    private static AimdLimiter limiter(int limit) {
+        return new AimdLimiter(new LimiterProperties.Budget(limit, 1, limit, Duration.ofMinutes(1)), 0.75);
+    }
+
+    /**
+     * Every request counts as slow.
+     */
+    private static AimdLimiter slowLimiter(int limit) {
+        return new AimdLimiter(new LimiterProperties.Budget(limit, 1, limit, Duration.ZERO), 0.75);
+    }
+}
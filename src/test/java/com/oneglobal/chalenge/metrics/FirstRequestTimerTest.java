@@ -0,0 +1,39 @@
+package com.oneglobal.chalenge.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FirstRequestTimerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong uptime = new AtomicLong(1200);
+    private final FirstRequestTimer timer = new FirstRequestTimer(registry) {
+        @Override
+        long uptimeMillis() {
+            return uptime.get();
+        }
+    };
+
+    @Test
+    void recordsOnlyTheFirstRequest() throws Exception {
+        assertTrue(Double.isNaN(gauge()));
+
+        timer.doFilter(new MockHttpServletRequest("GET", "/devices"), new MockHttpServletResponse(), (req, res) -> { });
+        uptime.set(5000);
+        timer.doFilter(new MockHttpServletRequest("GET", "/devices"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertEquals(1.2, gauge());
+    }
+
+    private double gauge() {
+        return registry.get(FirstRequestTimer.METRIC_NAME).timeGauge().value(TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,36 @@
+package com.oneglobal.chalenge.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementMetricsFilterTest {
+
+    private final StatementCounter counter = new StatementCounter();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementMetricsFilter filter = new StatementMetricsFilter(counter, registry);
+
+    @Test
+    void recordsStatementsPerRequestTaggedByRoute() throws Exception {
+        counter.inspect("select stale from previous request");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/devices/7");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/devices/{id}");
+            counter.inspect("select d from device d where d.id=?");
+            counter.inspect("update device set state=? where id=?");
+        });
+
+        DistributionSummary summary = registry.get(StatementMetricsFilter.METRIC_NAME)
+                .tag("uri", "/devices/{id}")
+                .tag("method", "GET")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.oneglobal.chalenge.repository;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the guarded JPQL writes against H2 (MySQL mode), where the service tests only see mocks.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DeviceRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should refuse to rename or delete an IN_USE device")
+    void guardedWrites_WhenInUse_ShouldAffectNoRow() {
+        Long id = persist(DeviceState.IN_USE);
+
+        assertEquals(0, repository.replaceIfAllowed(id, "Pixel 9", "Google", DeviceState.IN_USE, null, NOW));
+        assertEquals(0, repository.patchIfAllowed(id, null, "Alphabet", null, null, NOW));
+        assertEquals(0, repository.deleteIfNotInUse(id, null));
+
+        Device device = repository.findById(id).orElseThrow();
+        assertEquals("Pixel 8", device.getName());
+        assertEquals("Google", device.getBrand());
+        assertEquals(0L, device.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should change the state of an IN_USE device when name and brand are kept")
+    void replaceIfAllowed_WhenInUseAndOnlyStateChanges_ShouldAffectOneRow() {
+        Long id = persist(DeviceState.IN_USE);
+
+        assertEquals(1, repository.replaceIfAllowed(id, "Pixel 8", "Google", DeviceState.AVAILABLE, 0L, NOW));
+
+        Device device = repository.findById(id).orElseThrow();
+        assertEquals(DeviceState.AVAILABLE, device.getState());
+        assertEquals(NOW, device.getStateChangedAt());
+        assertEquals(1L, device.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should patch and delete an AVAILABLE device only at the expected version")
+    void guardedWrites_WhenAllowed_ShouldAffectOneRow() {
+        Long id = persist(DeviceState.AVAILABLE);
+
+        assertEquals(0, repository.patchIfAllowed(id, "Pixel 8a", null, null, 3L, NOW));
+        assertEquals(1, repository.patchIfAllowed(id, "Pixel 8a", null, null, 0L, NOW));
+        assertEquals("Pixel 8a", repository.findById(id).orElseThrow().getName());
+
+        assertEquals(0, repository.deleteIfNotInUse(id, 0L));
+        assertEquals(1, repository.deleteIfNotInUse(id, 1L));
+        assertTrue(repository.findById(id).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read the snapshot that explains a rejected write")
+    void findSnapshotById_ShouldReturnBrandStateAndVersion() {
+        Long id = persist(DeviceState.IN_USE);
+
+        DeviceSnapshot snapshot = repository.findSnapshotById(id).orElseThrow();
+
+        assertEquals(new DeviceSnapshot("Google", DeviceState.IN_USE, 0L), snapshot);
+        assertTrue(repository.findSnapshotById(id + 1).isEmpty());
+    }
+
+    private Long persist(DeviceState state) {
+        Long id = entityManager.persistAndFlush(new Device(null, "Pixel 8", "Google", state, null)).getId();
+        entityManager.clear();
+        return id;
+    }
+}
@@ -0,0 +1,69 @@
+package com.oneglobal.chalenge.repository;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies the Flyway migrations to H2 (MySQL mode) and has Hibernate validate the mappings against the result, with
+ * the MySQL dialect the migrations are written for (device_seq is a table there, not a sequence).
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrated;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should migrate an empty database to a schema the mappings validate against")
+    void migrate_FromEmpty_ShouldMatchTheMappings() {
+        assertEquals("2", flyway.info().current().getVersion().getVersion());
+
+        Device device = entityManager.persistAndFlush(new Device(null, "Pixel 8", "Google", DeviceState.AVAILABLE, null));
+
+        assertEquals(1L, device.getId());
+        assertEquals(0L, device.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should upgrade a database created before the migrations, keeping its devices")
+    void migrate_FromOriginalSchema_ShouldKeepDevices() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:original;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into device (creation_time, brand, name, state) values (now(), 'Apple', 'iPhone 15', 'IN_USE')");
+        jdbc.update("insert into device (creation_time, brand, name, state) values (now(), 'Google', 'Pixel 8', 'AVAILABLE')");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertEquals(2, jdbc.queryForObject("select count(*) from device where version = 0", Integer.class));
+        assertEquals(0, jdbc.queryForObject("select count(*) from device_archive", Integer.class));
+        assertEquals("IN_USE", jdbc.queryForObject("select state from device where name = 'iPhone 15'", String.class));
+        // The pooled optimizer hands out 3 to 52 from a stored 52, after the ids already taken
+        assertEquals(52L, jdbc.queryForObject("select next_val from device_seq", Long.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.config.CacheConfig;
+import com.oneglobal.chalenge.entity.dto.DeviceMultiGetResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceBatchReaderTest {
+
+    @Mock
+    private DeviceRepository repository;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.DEVICES_CACHE);
+    private DeviceBatchReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new DeviceBatchReader(repository, cacheManager, 1200);
+    }
+
+    @Test
+    void findAllById_ShouldKeepRequestOrderAndReportMissing() {
+        cacheManager.getCache(CacheConfig.DEVICES_CACHE).put(3L, device(3L));
+        when(repository.findResponsesByIdIn(List.of(9L, 1L, 4L))).thenReturn(List.of(device(1L), device(9L)));
+
+        DeviceMultiGetResponseDTO result = reader.findAllById(List.of(9L, 3L, 1L, 9L, 4L));
+
+        assertEquals(List.of(9L, 3L, 1L), result.devices().stream().map(DeviceResponseDTO::id).toList());
+        assertEquals(List.of(4L), result.missing());
+    }
+
+    @Test
+    void findAllById_ShouldQueryInChunks() {
+        when(repository.findResponsesByIdIn(any())).thenReturn(List.of());
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().toList();
+
+        DeviceMultiGetResponseDTO result = reader.findAllById(ids);
+
+        assertEquals(1200, result.missing().size());
+        verify(repository, times(3)).findResponsesByIdIn(any());
+    }
+
+    @Test
+    void findAllById_WithTooManyOrNoIds_ShouldThrow() {
+        List<Long> tooMany = new ArrayList<>(LongStream.rangeClosed(1, 1201).boxed().toList());
+
+        assertThrows(IllegalArgumentException.class, () -> reader.findAllById(tooMany));
+        assertThrows(IllegalArgumentException.class, () -> reader.findAllById(List.of()));
+        verifyNoInteractions(repository);
+    }
+
+    private static DeviceResponseDTO device(Long id) {
+        return new DeviceResponseDTO(id, "Pixel " + id, "Google", DeviceState.AVAILABLE, null, 0L);
+    }
+}
@@ -0,0 +1,91 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.config.CacheConfig;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.event.DeviceStateTransitionedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceCacheInvalidatorTest {
+
+    private Cache cache;
+    private DeviceCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setup() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.DEVICES_CACHE);
+        cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        invalidator = new DeviceCacheInvalidator(new DeviceCache(cacheManager));
+    }
+
+    @Test
+    @DisplayName("Should refresh the cached device after an update")
+    void onDeviceChanged_WhenUpdated_ShouldRefreshEntry() {
+        DeviceResponseDTO stale = new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L);
+        DeviceResponseDTO fresh = new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.IN_USE, null, 0L);
+        cache.put(1L, stale);
+
+        invalidator.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 1L, null, fresh));
+
+        assertEquals(fresh, cache.get(1L, DeviceResponseDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should keep the newer device when after-commit callbacks arrive out of order")
+    void onDeviceChanged_WhenDeliveredOutOfOrder_ShouldKeepNewerVersion() {
+        DeviceResponseDTO older = new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.IN_USE, null, 1L);
+        DeviceResponseDTO newer = new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 2L);
+        cache.put(1L, new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L));
+
+        invalidator.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 1L, null, newer));
+        invalidator.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 1L, null, older));
+
+        assertEquals(newer, cache.get(1L, DeviceResponseDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should not bring back a deleted device when an earlier update arrives late")
+    void onDeviceChanged_WhenUpdateArrivesAfterDelete_ShouldNotCache() {
+        cache.put(1L, new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L));
+
+        invalidator.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 1L, null, null));
+        invalidator.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 1L, null,
+                new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.INACTIVE, null, 1L)));
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should evict the cached device after a delete")
+    void onDeviceChanged_WhenDeleted_ShouldEvictEntry() {
+        cache.put(1L, new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L));
+
+        invalidator.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 1L, null, null));
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should evict only the listed ids after an id-based bulk transition")
+    void onStateTransitioned_WithIds_ShouldEvictOnlyThoseIds() {
+        cache.put(1L, new DeviceResponseDTO(1L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L));
+        cache.put(2L, new DeviceResponseDTO(2L, "Pixel 9", "Google", DeviceState.AVAILABLE, null, 0L));
+
+        invalidator.onStateTransitioned(new DeviceStateTransitionedEvent(
+                new DeviceStateTransitionRequestDTO(List.of(1L), null, null, DeviceState.INACTIVE, null), 1));
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+}
@@ -0,0 +1,84 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.config.CacheConfig;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceCacheTest {
+
+    private Cache cache;
+    private DeviceCache deviceCache;
+
+    @BeforeEach
+    void setup() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.DEVICES_CACHE);
+        cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        deviceCache = new DeviceCache(cacheManager);
+    }
+
+    @Test
+    @DisplayName("Should load a miss once and serve it from the cache afterwards")
+    void get_WhenMissing_ShouldLoadAndCache() {
+        DeviceResponseDTO device = device(0L, DeviceState.AVAILABLE);
+        AtomicInteger loads = new AtomicInteger();
+
+        deviceCache.get(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(device);
+        });
+        Optional<DeviceResponseDTO> cached = deviceCache.get(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(Optional.of(device), cached);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should cache a device that does not exist")
+    void get_WhenAbsent_ShouldCacheAbsence() {
+        deviceCache.get(1L, Optional::empty);
+
+        assertEquals(Optional.empty(), deviceCache.get(1L, () -> fail("Should not load again")));
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that read the device before a write committed")
+    void get_WhenWriteCommitsDuringLoad_ShouldNotCacheStaleDevice() {
+        DeviceResponseDTO stale = device(0L, DeviceState.AVAILABLE);
+
+        Optional<DeviceResponseDTO> loaded = deviceCache.get(1L, () -> {
+            deviceCache.refresh(device(1L, DeviceState.IN_USE));
+            return Optional.of(stale);
+        });
+
+        assertEquals(Optional.of(stale), loaded);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that read a device deleted during the load")
+    void get_WhenEvictedDuringLoad_ShouldNotCache() {
+        deviceCache.get(1L, () -> {
+            deviceCache.evict(1L);
+            return Optional.of(device(0L, DeviceState.AVAILABLE));
+        });
+
+        assertNull(cache.get(1L));
+    }
+
+    private static DeviceResponseDTO device(long version, DeviceState state) {
+        return new DeviceResponseDTO(1L, "Pixel 8", "Google", state, null, version);
+    }
+}
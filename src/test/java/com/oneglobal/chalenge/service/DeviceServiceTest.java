@@ -1,32 +1,79 @@
 package com.oneglobal.chalenge.service;
 
 import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchErrorDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceBatchResponseDTO;
 import com.oneglobal.chalenge.entity.dto.DeviceRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionResponseDTO;
 import com.oneglobal.chalenge.entity.enumerator.DeviceState;
 import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.pagination.KeysetPage;
 import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.search.DeviceNameIndex;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DeviceServiceTest {
 
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
     @Mock
     private DeviceRepository repository;
 
     @Mock
     private DeviceMapper mapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private DeviceBatchWriter batchWriter;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private DeviceNameIndex nameIndex;
+
+    @Mock
+    private DeviceCache cache;
+
+    @Spy
+    private Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+
     @InjectMocks
     private DeviceService service;
 
@@ -43,37 +90,178 @@ class DeviceServiceTest {
 
         verify(repository, times(1)).save(device);
         verify(mapper, times(1)).toEntity(dto);
+        verify(events).publishEvent(any(DeviceChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should report invalid items and insert the rest in one chunk")
+    void createAll_WithInvalidItem_ShouldReportErrorAndInsertValidOnes() {
+        DeviceRequestDTO valid = new DeviceRequestDTO("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        DeviceRequestDTO invalid = new DeviceRequestDTO("Pixel 8", null, DeviceState.AVAILABLE);
+        Device device = new Device();
+
+        when(mapper.toEntity(valid)).thenReturn(device);
+        when(batchWriter.insert(List.of(device, device))).thenReturn(List.of(
+                new Device(10L, "iPhone 15", "Apple", DeviceState.AVAILABLE, null),
+                new Device(11L, "iPhone 15", "Apple", DeviceState.AVAILABLE, null)));
+
+        DeviceBatchResponseDTO result = service.createAll(List.of(valid, invalid, valid));
+
+        assertEquals(Arrays.asList(10L, null, 11L), result.ids());
+        assertEquals(List.of(new DeviceBatchErrorDTO(1, "Brand is required")), result.errors());
+        verify(batchWriter, times(1)).insert(any());
+    }
+
+    @Test
+    @DisplayName("Should retry a rejected chunk item by item to isolate the failing device")
+    void createAll_WhenChunkFails_ShouldIsolateFailingItem() {
+        DeviceRequestDTO good = new DeviceRequestDTO("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        DeviceRequestDTO bad = new DeviceRequestDTO("Pixel 8", "Google", DeviceState.AVAILABLE);
+        Device goodDevice = new Device();
+        Device badDevice = new Device();
+
+        when(mapper.toEntity(good)).thenReturn(goodDevice);
+        when(mapper.toEntity(bad)).thenReturn(badDevice);
+        when(batchWriter.insert(List.of(goodDevice, badDevice)))
+                .thenThrow(new DataIntegrityViolationException("chunk rejected"));
+        when(batchWriter.insert(List.of(goodDevice)))
+                .thenReturn(List.of(new Device(7L, "iPhone 15", "Apple", DeviceState.AVAILABLE, null)));
+        when(batchWriter.insert(List.of(badDevice)))
+                .thenThrow(new DataIntegrityViolationException("name too long"));
+
+        DeviceBatchResponseDTO result = service.createAll(List.of(good, bad));
+
+        assertEquals(Arrays.asList(7L, null), result.ids());
+        assertEquals(List.of(new DeviceBatchErrorDTO(1, DeviceService.BATCH_ITEM_REJECTED)), result.errors());
+    }
+
+    @Test
+    @DisplayName("Should fetch one extra row to detect the next page")
+    void findAll_WhenMoreRowsThanLimit_ShouldReturnNextKey() {
+        DeviceResponseDTO first = new DeviceResponseDTO(1L, "iPhone 15", "Apple", DeviceState.AVAILABLE, null, 0L);
+        DeviceResponseDTO second = new DeviceResponseDTO(2L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L);
+        DeviceResponseDTO third = new DeviceResponseDTO(3L, "Galaxy S24", "Samsung", DeviceState.IN_USE, null, 0L);
+
+        when(repository.findResponsesAfter(0L, Limit.of(3)))
+                .thenReturn(List.of(first, second, third));
+
+        KeysetPage<DeviceResponseDTO> page = service.findAll(0L, 2);
+
+        assertEquals(List.of(first, second), page.items());
+        assertEquals(2L, page.nextKey());
+    }
+
+    @Test
+    @DisplayName("Should return name search hits in rank order, skipping deleted devices")
+    void searchByName_ShouldKeepIndexOrder() {
+        DeviceResponseDTO pixel = new DeviceResponseDTO(2L, "Pixel 8", "Google", DeviceState.AVAILABLE, null, 0L);
+        DeviceResponseDTO pixelPro = new DeviceResponseDTO(5L, "Pixel 8 Pro", "Google", DeviceState.IN_USE, null, 0L);
+        when(nameIndex.search("pixl 8", 10)).thenReturn(List.of(5L, 9L, 2L));
+        when(repository.findResponsesByIdIn(List.of(5L, 9L, 2L))).thenReturn(List.of(pixel, pixelPro));
+
+        assertEquals(List.of(pixelPro, pixel), service.searchByName("pixl 8", 10));
+    }
+
+    @Test
+    @DisplayName("Should map and detach each streamed device during export")
+    void export_ShouldMapAndDetachEachDevice() {
+        Device device = new Device(1L, "iPhone 15", "Apple", DeviceState.AVAILABLE, null);
+        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "iPhone 15", "Apple", DeviceState.AVAILABLE, null, 0L);
+        List<DeviceResponseDTO> exported = new ArrayList<>();
+
+        when(repository.streamAll(DeviceState.AVAILABLE, null)).thenReturn(Stream.of(device));
+        when(mapper.toResponseDTO(device)).thenReturn(dto);
+
+        service.export(DeviceState.AVAILABLE, null, exported::add);
+
+        assertEquals(List.of(dto), exported);
+        verify(entityManager).detach(device);
+    }
+
+    @Test
+    @DisplayName("Should transition matching devices with set-based updates and count IN_USE ones as skipped")
+    void transitionState_ShouldUpdateWithoutLoadingEntities() {
+        DeviceStateTransitionRequestDTO request =
+                new DeviceStateTransitionRequestDTO(null, "Nokia", null, DeviceState.INACTIVE, null);
+
+        when(repository.count(ArgumentMatchers.<Specification<Device>>any())).thenReturn(2L);
+        when(repository.updateState(any(), eq(DeviceState.INACTIVE), any())).thenReturn(40);
+
+        DeviceStateTransitionResponseDTO result = service.transitionState(request);
+
+        assertEquals(new DeviceStateTransitionResponseDTO(40, 2), result);
+        verify(repository, never()).findAll(ArgumentMatchers.<Specification<Device>>any());
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should also move IN_USE devices when the transition includes them")
+    void transitionState_IncludingInUse_ShouldMoveInUseDevices() {
+        DeviceStateTransitionRequestDTO request =
+                new DeviceStateTransitionRequestDTO(null, "Nokia", DeviceState.IN_USE, DeviceState.AVAILABLE, true);
+
+        when(repository.updateState(any(), eq(DeviceState.AVAILABLE), eq(NOW))).thenReturn(12);
+
+        DeviceStateTransitionResponseDTO result = service.transitionState(request);
+
+        assertEquals(new DeviceStateTransitionResponseDTO(12, 0), result);
+        verify(repository, never()).count(ArgumentMatchers.<Specification<Device>>any());
+    }
+
+    @Test
+    @DisplayName("Should reject a bulk transition without any filter")
+    void transitionState_WithoutFilter_ShouldThrowException() {
+        DeviceStateTransitionRequestDTO request =
+                new DeviceStateTransitionRequestDTO(List.of(), null, null, DeviceState.INACTIVE, null);
+
+        assertThrows(IllegalArgumentException.class, () -> service.transitionState(request));
+        verify(repository, never()).updateState(any(), any(), any());
     }
 
     @Test
     @DisplayName("Should NOT delete device when state is IN_USE")
     void delete_WhenInUse_ShouldThrowException() {
         Long deviceId = 1L;
-        Device deviceInUse = new Device();
-        deviceInUse.setState(DeviceState.IN_USE);
 
-        when(repository.findById(deviceId)).thenReturn(Optional.of(deviceInUse));
+        when(repository.deleteIfNotInUse(deviceId, null)).thenReturn(0);
+        when(repository.findSnapshotById(deviceId))
+                .thenReturn(Optional.of(new DeviceSnapshot("Apple", DeviceState.IN_USE, 0L)));
 
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
-            service.delete(deviceId);
+            service.delete(deviceId, null);
         });
 
         assertEquals("Cannot delete a device that is IN_USE", exception.getMessage());
         verify(repository, never()).deleteById(any());
+        verify(events, never()).publishEvent(any());
     }
 
     @Test
-    @DisplayName("Should delete device when state is AVAILABLE")
+    @DisplayName("Should delete device when state is AVAILABLE with a single guarded statement")
     void delete_WhenAvailable_ShouldSucceed() {
         Long deviceId = 1L;
-        Device deviceAvailable = new Device();
-        deviceAvailable.setState(DeviceState.AVAILABLE);
 
-        when(repository.findById(deviceId)).thenReturn(Optional.of(deviceAvailable));
+        when(repository.deleteIfNotInUse(deviceId, null)).thenReturn(1);
 
-        service.delete(deviceId);
+        service.delete(deviceId, null);
 
-        verify(repository, times(1)).deleteById(deviceId);
+        verify(events).publishEvent(new DeviceChangedEvent(DeviceChangeType.DELETED, deviceId, null, null));
+        verify(repository, times(1)).deleteIfNotInUse(deviceId, null);
+        verify(repository, never()).findById(any());
+        verify(repository, never()).findSnapshotById(any());
+    }
+
+    @Test
+    @DisplayName("Should report a missing device when the delete matches no row")
+    void delete_WhenNotFound_ShouldThrowNotFound() {
+        Long deviceId = 1L;
+
+        when(repository.deleteIfNotInUse(deviceId, null)).thenReturn(0);
+        when(repository.findSnapshotById(deviceId)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> service.delete(deviceId, null));
+
+        assertEquals("Device not found", exception.getMessage());
     }
 
     @Test
@@ -82,38 +270,74 @@ class DeviceServiceTest {
         Long deviceId = 1L;
         DeviceRequestDTO dto = new DeviceRequestDTO("New Name", "New Brand", DeviceState.IN_USE);
 
-        Device deviceInDb = new Device();
-        deviceInDb.setName("Old Name");
-        deviceInDb.setBrand("Old Brand");
-        deviceInDb.setState(DeviceState.IN_USE);
-
-        when(repository.findById(deviceId)).thenReturn(Optional.of(deviceInDb));
+        when(repository.findById(deviceId)).thenReturn(Optional.of(device(deviceId, DeviceState.IN_USE, 0L)));
+        when(repository.replaceIfAllowed(deviceId, "New Name", "New Brand", DeviceState.IN_USE, 0L, NOW)).thenReturn(0);
+        when(repository.findSnapshotById(deviceId))
+                .thenReturn(Optional.of(new DeviceSnapshot("Old Brand", DeviceState.IN_USE, 0L)));
 
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
-            service.update(deviceId, dto);
+            service.update(deviceId, dto, null);
         });
 
         assertEquals("Cannot update name or brand when device is IN_USE", exception.getMessage());
         verify(repository, never()).save(any());
+        verify(events, never()).publishEvent(any());
     }
 
     @Test
-    @DisplayName("Should update state when state is IN_USE (PUT)")
+    @DisplayName("Should update state when state is IN_USE (PUT) with one read and one guarded UPDATE")
     void update_WhenInUseAndOnlyStateChanged_ShouldSucceed() {
         Long deviceId = 1L;
         DeviceRequestDTO dto = new DeviceRequestDTO("Old Name", "Old Brand", DeviceState.INACTIVE);
 
-        Device deviceInDb = new Device();
-        deviceInDb.setName("Old Name");
-        deviceInDb.setBrand("Old Brand");
-        deviceInDb.setState(DeviceState.IN_USE);
+        when(repository.findById(deviceId)).thenReturn(Optional.of(device(deviceId, DeviceState.IN_USE, 3L)));
+        when(repository.replaceIfAllowed(deviceId, "Old Name", "Old Brand", DeviceState.INACTIVE, 3L, NOW)).thenReturn(1);
+
+        Device updated = service.update(deviceId, dto, null);
+
+        assertEquals(DeviceState.INACTIVE, updated.getState());
+        assertEquals(4L, updated.getVersion());
+        assertEquals(NOW, updated.getStateChangedAt());
+        verify(repository, times(1)).findById(deviceId);
+        verify(repository, never()).save(any());
+        verify(repository, never()).findSnapshotById(any());
+        verify(events).publishEvent(new DeviceChangedEvent(DeviceChangeType.UPDATED, deviceId,
+                new DeviceSnapshot("Old Brand", DeviceState.IN_USE, 3L), null));
+    }
+
+    @Test
+    @DisplayName("Should start over when another write changed the device between the read and the UPDATE")
+    void patch_WhenModifiedConcurrentlyWithoutExpectedVersion_ShouldRetry() {
+        Long deviceId = 1L;
+        DeviceRequestDTO dto = new DeviceRequestDTO(null, "New Brand", null);
+
+        when(repository.findById(deviceId)).thenReturn(
+                Optional.of(device(deviceId, DeviceState.AVAILABLE, 1L)),
+                Optional.of(device(deviceId, DeviceState.INACTIVE, 2L)));
+        when(repository.patchIfAllowed(deviceId, null, "New Brand", null, 1L, NOW)).thenReturn(0);
+        when(repository.findSnapshotById(deviceId))
+                .thenReturn(Optional.of(new DeviceSnapshot("Old Brand", DeviceState.INACTIVE, 2L)));
+        when(repository.patchIfAllowed(deviceId, null, "New Brand", null, 2L, NOW)).thenReturn(1);
+
+        Device patched = service.patch(deviceId, dto, null);
+
+        assertEquals("New Brand", patched.getBrand());
+        assertEquals(DeviceState.INACTIVE, patched.getState());
+        assertEquals(3L, patched.getVersion());
+        verify(events).publishEvent(new DeviceChangedEvent(DeviceChangeType.UPDATED, deviceId,
+                new DeviceSnapshot("Old Brand", DeviceState.INACTIVE, 2L), null));
+    }
 
-        when(repository.findById(deviceId)).thenReturn(Optional.of(deviceInDb));
+    @Test
+    @DisplayName("Should reject a write whose expected version is stale without touching the row")
+    void patch_WhenVersionIsStale_ShouldThrowOptimisticLockingFailure() {
+        Long deviceId = 1L;
+        DeviceRequestDTO dto = new DeviceRequestDTO(null, null, DeviceState.INACTIVE);
 
-        service.update(deviceId, dto);
+        when(repository.findById(deviceId)).thenReturn(Optional.of(device(deviceId, DeviceState.AVAILABLE, 5L)));
 
-        verify(mapper).updateEntityFromDto(dto, deviceInDb);
-        verify(repository).save(deviceInDb);
+        assertThrows(OptimisticLockingFailureException.class, () -> service.patch(deviceId, dto, 4L));
+        verify(repository, never()).patchIfAllowed(any(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -122,18 +346,22 @@ class DeviceServiceTest {
         Long deviceId = 1L;
         DeviceRequestDTO dto = new DeviceRequestDTO("New Name", null, null);
 
-        Device deviceInDb = new Device();
-        deviceInDb.setName("Old Name");
-        deviceInDb.setBrand("Old Brand");
-        deviceInDb.setState(DeviceState.IN_USE);
-
-        when(repository.findById(deviceId)).thenReturn(Optional.of(deviceInDb));
+        when(repository.findById(deviceId)).thenReturn(Optional.of(device(deviceId, DeviceState.IN_USE, 0L)));
+        when(repository.patchIfAllowed(deviceId, "New Name", null, null, 0L, NOW)).thenReturn(0);
+        when(repository.findSnapshotById(deviceId))
+                .thenReturn(Optional.of(new DeviceSnapshot("Old Brand", DeviceState.IN_USE, 0L)));
 
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
-            service.patch(deviceId, dto);
+            service.patch(deviceId, dto, null);
         });
 
         assertEquals("Cannot update name or brand when device is IN_USE", exception.getMessage());
         verify(repository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    private static Device device(Long id, DeviceState state, Long version) {
+        Device device = new Device(id, "Old Name", "Old Brand", state, null);
+        device.setVersion(version);
+        return device;
+    }
+}
@@ -0,0 +1,87 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceStateWriterTest {
+
+    private static final LocalDateTime OBSERVED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private DeviceRepository repository;
+
+    @Mock
+    private DeviceMapper mapper;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @InjectMocks
+    private DeviceStateWriter writer;
+
+    @Test
+    void apply_ShouldUpdateOnlyChangedDevicesWithOneStatementPerState() {
+        Device unchanged = device(1L, DeviceState.IN_USE);
+        Device changed = device(2L, DeviceState.AVAILABLE);
+        when(repository.findAllForUpdate(any())).thenReturn(List.of(unchanged, changed));
+        when(mapper.toResponseDTO(changed)).thenReturn(
+                new DeviceResponseDTO(2L, "Pixel", "Google", DeviceState.AVAILABLE, null, 4L));
+
+        int result = writer.apply(Map.of(1L, report(1L, DeviceState.IN_USE), 2L, report(2L, DeviceState.IN_USE),
+                3L, report(3L, DeviceState.INACTIVE)));
+
+        assertEquals(1, result);
+        verify(repository).updateStates(List.of(2L), DeviceState.IN_USE, OBSERVED_AT);
+        verify(repository, never()).updateStates(any(), eq(DeviceState.INACTIVE), any());
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(DeviceState.AVAILABLE, event.getValue().previous().state());
+        assertEquals(DeviceState.IN_USE, event.getValue().device().state());
+        assertEquals(5L, event.getValue().device().version());
+    }
+
+    @Test
+    void apply_ShouldSkipReportsOlderThanTheLastStateChange() {
+        Device changedLater = device(1L, DeviceState.IN_USE);
+        changedLater.setStateChangedAt(OBSERVED_AT.plusSeconds(1));
+        when(repository.findAllForUpdate(any())).thenReturn(List.of(changedLater));
+
+        int result = writer.apply(Map.of(1L, report(1L, DeviceState.AVAILABLE)));
+
+        assertEquals(0, result);
+        verify(repository, never()).updateStates(any(), any(), any());
+        verify(events, never()).publishEvent(any());
+    }
+
+    private static DeviceStateReportDTO report(Long id, DeviceState state) {
+        return new DeviceStateReportDTO(id, state, OBSERVED_AT.toInstant(ZoneOffset.UTC));
+    }
+
+    private static Device device(Long id, DeviceState state) {
+        Device device = new Device(id, "Pixel", "Google", state, null);
+        device.setVersion(4L);
+        return device;
+    }
+}
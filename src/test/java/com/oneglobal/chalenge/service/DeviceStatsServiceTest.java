@@ -0,0 +1,75 @@
+package com.oneglobal.chalenge.service;
+
+import com.oneglobal.chalenge.entity.dto.DeviceCount;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStatsDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceStatsServiceTest {
+
+    @Mock
+    private DeviceRepository repository;
+
+    @InjectMocks
+    private DeviceStatsService statsService;
+
+    @Test
+    @DisplayName("Should start from the reconciled counts and apply committed changes in memory")
+    void onDeviceChanged_ShouldAdjustCountersWithoutQuerying() {
+        when(repository.countByBrandAndState()).thenReturn(List.of(
+                new DeviceCount("Apple", DeviceState.AVAILABLE, 2),
+                new DeviceCount("Google", DeviceState.IN_USE, 1)));
+        statsService.reconcile();
+
+        statsService.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 1L,
+                new DeviceSnapshot("Apple", DeviceState.AVAILABLE, 0L),
+                new DeviceResponseDTO(1L, "iPhone 15", "Apple", DeviceState.IN_USE, null, 0L)));
+        statsService.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 2L,
+                new DeviceSnapshot("Google", DeviceState.IN_USE, 0L), null));
+
+        DeviceStatsDTO stats = statsService.getStats();
+
+        assertEquals(2, stats.total());
+        assertEquals(Map.of(DeviceState.AVAILABLE, 1L, DeviceState.IN_USE, 1L), stats.byState());
+        assertEquals(Map.of("Apple", 2L), stats.byBrand());
+        assertNotNull(stats.reconciledAt());
+        verify(repository, times(1)).countByBrandAndState();
+    }
+
+    @Test
+    @DisplayName("Should recount once after deletions that do not say what they removed")
+    void onDeviceChanged_WhenDeletedWithoutPrevious_ShouldRecountOnce() {
+        when(repository.countByBrandAndState()).thenReturn(
+                List.of(new DeviceCount("Apple", DeviceState.AVAILABLE, 2)),
+                List.of(new DeviceCount("Apple", DeviceState.AVAILABLE, 0)));
+        statsService.reconcile();
+        statsService.recountIfRequested();
+
+        statsService.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 1L, null, null));
+        statsService.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 2L, null, null));
+        assertEquals(2, statsService.getStats().total());
+
+        statsService.recountIfRequested();
+        statsService.recountIfRequested();
+
+        assertEquals(0, statsService.getStats().total());
+        verify(repository, times(2)).countByBrandAndState();
+    }
+}
@@ -0,0 +1,96 @@
+package com.oneglobal.chalenge.service.checkout;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.mapper.DeviceMapper;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceCheckoutServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Mock
+    private DeviceRepository repository;
+
+    @Mock
+    private DeviceMapper mapper;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Spy
+    private Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @InjectMocks
+    private DeviceCheckoutService service;
+
+    @Test
+    void checkout_ShouldMoveLockedDevicesToInUseInOneUpdate() {
+        Device device = device(7L, DeviceState.AVAILABLE);
+        when(repository.findAvailableForUpdateSkipLocked("Google", Limit.of(2))).thenReturn(List.of(device));
+        when(mapper.toResponseDTO(device)).thenReturn(
+                new DeviceResponseDTO(7L, "Pixel", "Google", DeviceState.AVAILABLE, null, 3L));
+
+        List<DeviceResponseDTO> claimed = service.checkout("Google", 2);
+
+        assertEquals(List.of(new DeviceResponseDTO(7L, "Pixel", "Google", DeviceState.IN_USE, null, 4L)), claimed);
+        verify(repository).updateStates(List.of(7L), DeviceState.IN_USE, NOW);
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(DeviceState.AVAILABLE, event.getValue().previous().state());
+    }
+
+    @Test
+    void checkout_WhenNothingAvailable_ShouldNotWrite() {
+        when(repository.findAvailableForUpdateSkipLocked(null, Limit.of(1))).thenReturn(List.of());
+
+        assertTrue(service.checkout(null, 1).isEmpty());
+
+        verify(repository, never()).updateStates(any(), any(), any());
+        verifyNoInteractions(events);
+        assertThrows(IllegalArgumentException.class, () -> service.checkout(null, DeviceCheckoutService.MAX_DEVICES + 1));
+    }
+
+    @Test
+    void release_ShouldOnlyReleaseDevicesInUse() {
+        Device inUse = device(1L, DeviceState.IN_USE);
+        when(repository.findAllForUpdate(List.of(1L, 2L)))
+                .thenReturn(List.of(inUse, device(2L, DeviceState.AVAILABLE)));
+        when(mapper.toResponseDTO(inUse)).thenReturn(
+                new DeviceResponseDTO(1L, "Pixel", "Google", DeviceState.IN_USE, null, 3L));
+
+        List<DeviceResponseDTO> released = service.release(List.of(1L, 2L));
+
+        assertEquals(1, released.size());
+        assertEquals(DeviceState.AVAILABLE, released.get(0).state());
+        verify(repository).updateStates(List.of(1L), DeviceState.AVAILABLE, NOW);
+    }
+
+    private static Device device(Long id, DeviceState state) {
+        Device device = new Device(id, "Pixel", "Google", state, null);
+        device.setVersion(3L);
+        return device;
+    }
+}
@@ -0,0 +1,120 @@
+package com.oneglobal.chalenge.service.feed;
+
+import com.oneglobal.chalenge.controller.DeviceFeedController;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceSnapshot;
+import com.oneglobal.chalenge.entity.dto.DeviceStateTransitionRequestDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import com.oneglobal.chalenge.service.event.DeviceStateTransitionedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class DeviceChangeFeedTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    private final DeviceChangeFeed feed = new DeviceChangeFeed(3, 2, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new DeviceFeedController(feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void streamsCommittedChangesMatchingTheFilter() throws Exception {
+        MockHttpServletResponse response = subscribe("/devices/changes?brand=Google", null);
+
+        feed.onDeviceChanged(created(1L, "Apple", DeviceState.AVAILABLE));
+        feed.onDeviceChanged(created(2L, "Google", DeviceState.AVAILABLE));
+        feed.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 2L,
+                new DeviceSnapshot("Google", DeviceState.AVAILABLE, 0L),
+                new DeviceResponseDTO(2L, "device-2", "Alphabet", DeviceState.AVAILABLE, null, 1L)));
+        // Deletions do not read the device, so they reach every subscriber
+        feed.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 3L, null, null));
+
+        String body = awaitContent(response, "event:deleted");
+        assertTrue(body.contains("event:created"));
+        assertTrue(body.contains("Alphabet"));
+        assertTrue(body.contains("\"id\":3"));
+        assertFalse(body.contains("Apple"));
+    }
+
+    @Test
+    void resumesAfterLastEventId() throws Exception {
+        MockHttpServletResponse live = subscribe("/devices/changes", null);
+        feed.onDeviceChanged(created(1L, "Google", DeviceState.AVAILABLE));
+        feed.onStateTransitioned(new DeviceStateTransitionedEvent(
+                new DeviceStateTransitionRequestDTO(List.of(1L), null, null, DeviceState.INACTIVE, null), 1));
+        String first = firstEventId(awaitContent(live, "event:transitioned"));
+
+        MockHttpServletResponse resumed = subscribe("/devices/changes", first);
+
+        String body = awaitContent(resumed, "event:transitioned");
+        assertFalse(body.contains("event:created"));
+    }
+
+    @Test
+    void sendsResetWhenTheResumePointIsNoLongerBuffered() throws Exception {
+        MockHttpServletResponse response = subscribe("/devices/changes", "unknown-42");
+
+        assertTrue(awaitContent(response, "event:reset").contains("data:reset"));
+        assertEquals(1, feed.subscriberCount());
+    }
+
+    private MockHttpServletResponse subscribe(String uri, String lastEventId) throws Exception {
+        var request = get(uri);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    private static DeviceChangedEvent created(Long id, String brand, DeviceState state) {
+        return new DeviceChangedEvent(DeviceChangeType.CREATED, id, null,
+                new DeviceResponseDTO(id, "device-" + id, brand, state, null, 0L));
+    }
+
+    private static String firstEventId(String body) {
+        Matcher matcher = EVENT_ID.matcher(body);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            String body = response.getContentAsString();
+            if (body.contains(expected)) {
+                return body;
+            }
+            Thread.sleep(10);
+        }
+        fail("Timed out waiting for " + expected + " in " + response.getContentAsString());
+        return null;
+    }
+}
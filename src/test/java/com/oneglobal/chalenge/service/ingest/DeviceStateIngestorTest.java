@@ -0,0 +1,136 @@
+package com.oneglobal.chalenge.service.ingest;
+
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.service.DeviceStateWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceStateIngestorTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant NOW = T0.plusSeconds(60);
+    private static final Duration MAX_REPORT_AGE = Duration.ofMinutes(5);
+
+    private final DeviceStateWriter writer = mock(DeviceStateWriter.class);
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void coalescesReportsToTheNewestStatePerDevice() {
+        DeviceStateIngestor ingestor = ingestor(DeviceStateIngestor.Durability.BEST_EFFORT, 100);
+
+        DeviceStateReportResponseDTO response = ingestor.ingest(List.of(
+                report(1L, DeviceState.IN_USE, 2),
+                report(1L, DeviceState.INACTIVE, 1),
+                report(2L, DeviceState.AVAILABLE, 1),
+                new DeviceStateReportDTO(3L, null, T0)));
+        ingestor.ingest(List.of(report(2L, DeviceState.IN_USE, 5)));
+        ingestor.flush();
+
+        assertEquals(3, response.accepted());
+        assertEquals(3, response.errors().get(0).index());
+        verify(writer).apply(Map.of(1L, report(1L, DeviceState.IN_USE, 2), 2L, report(2L, DeviceState.IN_USE, 5)));
+    }
+
+    @Test
+    void rejectsNewDevicesOnceTheBufferIsFull() {
+        DeviceStateIngestor ingestor = ingestor(DeviceStateIngestor.Durability.BEST_EFFORT, 1);
+
+        ingestor.ingest(List.of(report(1L, DeviceState.IN_USE, 1)));
+        DeviceStateReportResponseDTO response = ingestor.ingest(List.of(
+                report(1L, DeviceState.AVAILABLE, 2),
+                report(2L, DeviceState.AVAILABLE, 2)));
+
+        assertTrue(response.bufferFull());
+        assertEquals(1, response.accepted());
+        assertEquals("Ingestion buffer is full", response.errors().get(0).message());
+    }
+
+    @Test
+    void failedFlushIsRetriedWithoutOverwritingNewerReports() {
+        DeviceStateIngestor ingestor = ingestor(DeviceStateIngestor.Durability.BEST_EFFORT, 100);
+        when(writer.apply(any())).thenThrow(new QueryTimeoutException("timeout")).thenReturn(1);
+
+        ingestor.ingest(List.of(report(1L, DeviceState.IN_USE, 1), report(2L, DeviceState.IN_USE, 1)));
+        ingestor.flush();
+        ingestor.ingest(List.of(report(1L, DeviceState.INACTIVE, 2)));
+        ingestor.flush();
+
+        verify(writer).apply(Map.of(1L, report(1L, DeviceState.INACTIVE, 2), 2L, report(2L, DeviceState.IN_USE, 1)));
+    }
+
+    @Test
+    void journalReplaysUnflushedReportsAfterRestart() {
+        DeviceStateIngestor crashed = ingestor(DeviceStateIngestor.Durability.JOURNAL, 100);
+        crashed.ingest(List.of(report(1L, DeviceState.IN_USE, 1), report(1L, DeviceState.AVAILABLE, 2)));
+        verify(writer, never()).apply(any());
+
+        DeviceStateIngestor restarted = ingestor(DeviceStateIngestor.Durability.JOURNAL, 100);
+        restarted.flush();
+        restarted.flush();
+
+        verify(writer, times(1)).apply(Map.of(1L, report(1L, DeviceState.AVAILABLE, 2)));
+    }
+
+    @Test
+    void boundsTimestampsByTheReceiptTime() {
+        DeviceStateIngestor ingestor = ingestor(DeviceStateIngestor.Durability.BEST_EFFORT, 100);
+
+        DeviceStateReportResponseDTO response = ingestor.ingest(List.of(
+                new DeviceStateReportDTO(1L, DeviceState.IN_USE, NOW.plus(Duration.ofDays(365))),
+                new DeviceStateReportDTO(2L, DeviceState.IN_USE, NOW.minus(MAX_REPORT_AGE).minusSeconds(1)),
+                report(3L, DeviceState.INACTIVE, 0)));
+        ingestor.flush();
+
+        assertEquals(2, response.accepted());
+        assertEquals(1, response.errors().size());
+        assertEquals(1, response.errors().get(0).index());
+        verify(writer).apply(Map.of(
+                1L, new DeviceStateReportDTO(1L, DeviceState.IN_USE, NOW),
+                3L, report(3L, DeviceState.INACTIVE, 0)));
+    }
+
+    @Test
+    void syncDurabilityWritesBeforeAnswering() {
+        DeviceStateIngestor ingestor = ingestor(DeviceStateIngestor.Durability.SYNC, 100);
+
+        DeviceStateReportResponseDTO response = ingestor.ingest(List.of(report(1L, DeviceState.IN_USE, 1)));
+
+        assertFalse(response.bufferFull());
+        verify(writer).apply(Map.of(1L, report(1L, DeviceState.IN_USE, 1)));
+    }
+
+    private DeviceStateIngestor ingestor(DeviceStateIngestor.Durability durability, int maxPending) {
+        DeviceStateIngestor ingestor = new DeviceStateIngestor(writer, durability, maxPending, 1_000, journalDir,
+                MAX_REPORT_AGE, Clock.fixed(NOW, ZoneOffset.UTC), new SimpleMeterRegistry());
+        ingestor.recover();
+        return ingestor;
+    }
+
+    private static DeviceStateReportDTO report(Long id, DeviceState state, int second) {
+        return new DeviceStateReportDTO(id, state, T0.plusSeconds(second));
+    }
+}
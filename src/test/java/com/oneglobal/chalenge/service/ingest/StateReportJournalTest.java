@@ -0,0 +1,51 @@
+package com.oneglobal.chalenge.service.ingest;
+
+import com.oneglobal.chalenge.entity.dto.DeviceStateReportDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StateReportJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentAppendsAndRotationsAreAllRecovered() throws Exception {
+        StateReportJournal journal = new StateReportJournal(directory);
+        journal.recover();
+
+        List<Future<?>> appends = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int thread = 0; thread < 32; thread++) {
+                long first = thread * 50L;
+                appends.add(executor.submit(() -> {
+                    for (long id = first; id < first + 50; id++) {
+                        journal.append(List.of(new DeviceStateReportDTO(id, DeviceState.IN_USE, Instant.EPOCH)));
+                    }
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                journal.rotate();
+            }
+            for (Future<?> append : appends) {
+                append.get();
+            }
+        }
+        journal.close();
+
+        StateReportJournal.Recovered recovered = new StateReportJournal(directory).recover();
+        assertEquals(32 * 50, recovered.reports().size());
+        assertEquals(32 * 50, recovered.reports().stream().map(DeviceStateReportDTO::id).distinct().count());
+    }
+}
@@ -0,0 +1,84 @@
+package com.oneglobal.chalenge.service.retention;
+
+import com.oneglobal.chalenge.entity.Device;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.repository.ArchivedDeviceRepository;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceArchiverTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    @Mock
+    private DeviceRepository repository;
+
+    @Mock
+    private ArchivedDeviceRepository archiveRepository;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Spy
+    private Clock clock = Clock.systemUTC();
+
+    @InjectMocks
+    private DeviceArchiver archiver;
+
+    @Test
+    void archive_ShouldSkipDevicesReactivatedOrTouchedSinceSelection() {
+        Device expired = device(1L, DeviceState.INACTIVE, CUTOFF.minusDays(1));
+        Device reactivated = device(2L, DeviceState.AVAILABLE, CUTOFF.minusDays(1));
+        Device recentlyInactive = device(3L, DeviceState.INACTIVE, CUTOFF.plusDays(1));
+        Device legacy = device(4L, DeviceState.INACTIVE, null);
+        when(repository.findAllForUpdate(List.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(expired, reactivated, recentlyInactive, legacy));
+
+        int archived = archiver.archive(List.of(1L, 2L, 3L, 4L), CUTOFF);
+
+        assertEquals(2, archived);
+        verify(archiveRepository).copyFromDevices(eq(List.of(1L, 4L)), any());
+        verify(repository).deleteAllByIdIn(List.of(1L, 4L));
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(events, times(2)).publishEvent(event.capture());
+        assertEquals(DeviceChangeType.ARCHIVED, event.getValue().type());
+        assertEquals(DeviceState.INACTIVE, event.getValue().previous().state());
+        assertNull(event.getValue().device());
+    }
+
+    @Test
+    void archive_WhenNothingExpired_ShouldNotWrite() {
+        when(repository.findAllForUpdate(List.of(2L)))
+                .thenReturn(List.of(device(2L, DeviceState.IN_USE, CUTOFF.minusDays(1))));
+
+        assertEquals(0, archiver.archive(List.of(2L), CUTOFF));
+
+        verifyNoInteractions(archiveRepository, events);
+        verify(repository, never()).deleteAllByIdIn(any());
+    }
+
+    private static Device device(Long id, DeviceState state, LocalDateTime stateChangedAt) {
+        Device device = new Device(id, "Lumia 950", "Nokia", state, CUTOFF.minusYears(1));
+        device.setStateChangedAt(stateChangedAt);
+        device.setVersion(2L);
+        return device;
+    }
+}
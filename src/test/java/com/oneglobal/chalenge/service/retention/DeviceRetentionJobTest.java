@@ -0,0 +1,64 @@
+package com.oneglobal.chalenge.service.retention;
+
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceRetentionJobTest {
+
+    @Mock
+    private DeviceRepository repository;
+
+    @Mock
+    private DeviceArchiver archiver;
+
+    private SimpleMeterRegistry registry;
+    private DeviceRetentionJob job;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        job = new DeviceRetentionJob(repository, archiver, Clock.systemUTC(), Duration.ofDays(90), 2, 1.0, 100, registry);
+    }
+
+    @Test
+    void run_ShouldWalkChunksInIdOrderAndSkipFailedChunks() {
+        when(repository.findInactiveIdsBefore(any(), eq(0L), eq(Limit.of(2)))).thenReturn(List.of(1L, 3L));
+        when(repository.findInactiveIdsBefore(any(), eq(3L), eq(Limit.of(2)))).thenReturn(List.of(4L, 7L));
+        when(repository.findInactiveIdsBefore(any(), eq(7L), eq(Limit.of(2)))).thenReturn(List.of(9L));
+        when(repository.findInactiveIdsBefore(any(), eq(9L), eq(Limit.of(2)))).thenReturn(List.of());
+        when(archiver.archive(eq(List.of(1L, 3L)), any())).thenReturn(2);
+        when(archiver.archive(eq(List.of(4L, 7L)), any())).thenThrow(new CannotAcquireLockException("lock wait timeout"));
+        when(archiver.archive(eq(List.of(9L)), any())).thenReturn(1);
+
+        assertEquals(3, job.run());
+        assertEquals(3, registry.get("device.retention.archived").counter().count());
+        assertEquals(1, registry.get("device.retention.failures").counter().count());
+    }
+
+    @Test
+    void run_ShouldStopAtMaxPerRun() {
+        job = new DeviceRetentionJob(repository, archiver, Clock.systemUTC(), Duration.ofDays(90), 500, 1.0, 3, registry);
+        when(repository.findInactiveIdsBefore(any(), eq(0L), eq(Limit.of(3)))).thenReturn(List.of(1L, 2L, 3L));
+        when(archiver.archive(eq(List.of(1L, 2L, 3L)), any())).thenReturn(3);
+
+        assertEquals(3, job.run());
+        verify(repository, times(1)).findInactiveIdsBefore(any(), anyLong(), any());
+    }
+}
@@ -0,0 +1,110 @@
+package com.oneglobal.chalenge.service.search;
+
+import com.oneglobal.chalenge.entity.dto.DeviceName;
+import com.oneglobal.chalenge.entity.dto.DeviceResponseDTO;
+import com.oneglobal.chalenge.entity.enumerator.DeviceState;
+import com.oneglobal.chalenge.repository.DeviceRepository;
+import com.oneglobal.chalenge.service.event.DeviceChangeType;
+import com.oneglobal.chalenge.service.event.DeviceChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceNameIndexTest {
+
+    @Mock
+    private DeviceRepository repository;
+
+    private DeviceNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DeviceNameIndex(repository, 0.5, new SimpleMeterRegistry());
+        when(repository.streamNames()).thenReturn(Stream.of(
+                new DeviceName(1L, "iPhone 15", "Apple"),
+                new DeviceName(2L, "iPhone 15 Pro", "Apple"),
+                new DeviceName(3L, "Galaxy S24", "Samsung"),
+                new DeviceName(4L, "Pixel 8", "Google")));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should match unfinished words and prefer the closest name")
+    void search_WithPrefix_ShouldRankShorterMatchFirst() {
+        assertEquals(List.of(1L, 2L), index.search("iph 15", 10));
+        assertEquals(List.of(1L), index.search("iph 15", 1));
+    }
+
+    @Test
+    @DisplayName("Should tolerate typos and match on brand")
+    void search_WithTypo_ShouldStillMatch() {
+        assertEquals(List.of(3L), index.search("galxy", 10));
+        assertEquals(List.of(4L), index.search("gogle", 10));
+        assertEquals(List.of(), index.search("motorola", 10));
+    }
+
+    @Test
+    @DisplayName("Should apply committed changes without a rebuild")
+    void onDeviceChanged_ShouldReindexAndRemove() {
+        index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 3L, null,
+                new DeviceResponseDTO(3L, "Galaxy Z Fold", "Samsung", DeviceState.AVAILABLE, null, 1L)));
+        index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, 1L, null, null));
+        index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, 5L, null,
+                new DeviceResponseDTO(5L, "Moto G84", "Motorola", DeviceState.AVAILABLE, null, 0L)));
+
+        assertEquals(List.of(3L), index.search("fold", 10));
+        assertEquals(List.of(), index.search("s24", 10));
+        assertEquals(List.of(2L), index.search("iphone 15", 10));
+        assertEquals(List.of(5L), index.search("motorola", 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Should leave the index alone when an update keeps name and brand")
+    void onDeviceChanged_WithStateOnlyUpdates_ShouldNotGrowIndex() {
+        int ordinals = index.ordinals();
+
+        for (long version = 1; version <= 100; version++) {
+            DeviceState state = version % 2 == 0 ? DeviceState.AVAILABLE : DeviceState.IN_USE;
+            index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 3L, null,
+                    new DeviceResponseDTO(3L, "Galaxy S24", "Samsung", state, null, version)));
+        }
+
+        assertEquals(ordinals, index.ordinals());
+        assertEquals(List.of(3L), index.search("galaxy", 10));
+    }
+
+    @Test
+    @DisplayName("Should compact the ordinals left behind by renames")
+    void onDeviceChanged_WithManyRenames_ShouldCompact() {
+        for (long version = 1; version <= 5000; version++) {
+            index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, 3L, null,
+                    new DeviceResponseDTO(3L, "Galaxy S" + version, "Samsung", DeviceState.AVAILABLE, null, version)));
+        }
+
+        assertTrue(index.ordinals() <= 4 + 1024, "ordinals: " + index.ordinals());
+        assertEquals(4, index.size());
+        assertEquals(List.of(3L), index.search("galaxy s5000", 1));
+        assertEquals(List.of(1L, 2L), index.search("iph 15", 10));
+        assertEquals(List.of(4L), index.search("pixel", 10));
+    }
+
+    @Test
+    @DisplayName("Should reject blank and overlong queries")
+    void search_WithInvalidQuery_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> index.search(" ", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search("x".repeat(DeviceNameIndex.MAX_QUERY_LENGTH + 1), 10));
+    }
+}